@@ -52,6 +52,19 @@ abstract class AbstractAntennaModel implements AntennaModel {
                 .setFieldType(FieldType.FARFIELD).build();
     }
 
+    /**
+     * Calculate magnitude at specific angle without allocating intermediate objects. Phase is always
+     * {@link #DEFAULT_PHASE}.
+     * 
+     * @param theta
+     *            the theta angle in radians.
+     * @param phi
+     *            the phi angle in radians.
+     * 
+     * @return magnitude at given angle.
+     */
+    abstract double calculateMagnitude(double theta, double phi);
+
     /**
      * Retrieve vertical half power beam width (HPBW).
      * 
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Angular bounding region described by theta and phi ranges in radians. Theta is within [0, pi] and phi within [-pi,
+ * pi].
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class AngularRegion {
+
+    /**
+     * Region not containing any angle.
+     */
+    public static final AngularRegion EMPTY = new AngularRegion(Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+
+    /**
+     * Region containing the full sphere.
+     */
+    public static final AngularRegion FULL = new AngularRegion(0, Math.PI, -Math.PI, Math.PI);
+
+    private final double thetaMin;
+    private final double thetaMax;
+    private final double phiMin;
+    private final double phiMax;
+
+    AngularRegion(double thetaMin, double thetaMax, double phiMin, double phiMax) {
+        this.thetaMin = thetaMin;
+        this.thetaMax = thetaMax;
+        this.phiMin = phiMin;
+        this.phiMax = phiMax;
+    }
+
+    /**
+     * Check if region is empty.
+     * 
+     * @return true if region does not contain any angle.
+     */
+    public boolean isEmpty() {
+        return Double.isNaN(thetaMin);
+    }
+
+    /**
+     * Check if angle is contained in region.
+     * 
+     * @param thetaPhi
+     *            the theta and phi angle to check.
+     * 
+     * @return true if angle is within region.
+     */
+    public boolean contains(ThetaPhi thetaPhi) {
+        return contains(thetaPhi.getTheta(), thetaPhi.getPhi());
+    }
+
+    /**
+     * Check if angle is contained in region.
+     * 
+     * @param theta
+     *            the theta angle in radians.
+     * @param phi
+     *            the phi angle in radians.
+     * 
+     * @return true if angle is within region.
+     */
+    public boolean contains(double theta, double phi) {
+        return theta >= thetaMin && theta <= thetaMax && phi >= phiMin && phi <= phiMax;
+    }
+
+    /**
+     * Retrieve lower theta bound.
+     * 
+     * @return lower theta bound in radians.
+     */
+    public double getThetaMin() {
+        return thetaMin;
+    }
+
+    /**
+     * Retrieve upper theta bound.
+     * 
+     * @return upper theta bound in radians.
+     */
+    public double getThetaMax() {
+        return thetaMax;
+    }
+
+    /**
+     * Retrieve lower phi bound.
+     * 
+     * @return lower phi bound in radians.
+     */
+    public double getPhiMin() {
+        return phiMin;
+    }
+
+    /**
+     * Retrieve upper phi bound.
+     * 
+     * @return upper phi bound in radians.
+     */
+    public double getPhiMax() {
+        return phiMax;
+    }
+
+}
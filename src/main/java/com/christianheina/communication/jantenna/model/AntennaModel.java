@@ -15,6 +15,8 @@
  */
 package com.christianheina.communication.jantenna.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.math3.complex.Complex;
@@ -47,6 +49,24 @@ public interface AntennaModel {
         return NrAntennaModel.newBuilder();
     }
 
+    /**
+     * Create instance of {@link ArrayAntennaModel.Builder}.
+     * 
+     * @return new {@link ArrayAntennaModel.Builder} instance.
+     */
+    public static ArrayAntennaModel.Builder newArrayAntennaModelBuilder() {
+        return ArrayAntennaModel.newBuilder();
+    }
+
+    /**
+     * Create instance of {@link CompositeAntennaModel.Builder}.
+     * 
+     * @return new {@link CompositeAntennaModel.Builder} instance.
+     */
+    public static CompositeAntennaModel.Builder newCompositeAntennaModelBuilder() {
+        return CompositeAntennaModel.newBuilder();
+    }
+
     /**
      * Calculate antenna model.
      * 
@@ -57,6 +77,46 @@ public interface AntennaModel {
      */
     Field calculateField(List<ThetaPhi> thetaPhiList);
 
+    /**
+     * Create lazy antenna model view where samples are calculated on first access. Calculation cost is proportional
+     * to the samples read rather than the number of angles.
+     * 
+     * @param thetaPhiList
+     *            the theta and phi angles where the model is calculated.
+     * @param memoize
+     *            true to keep calculated samples in primitive buffers.
+     * 
+     * @return new instance of {@link LazyField} for the model.
+     */
+    default LazyField calculateLazyField(List<ThetaPhi> thetaPhiList, boolean memoize) {
+        return new LazyField(this, thetaPhiList, memoize);
+    }
+
+    /**
+     * Calculate antenna model at several frequencies in a single pass. Frequency independent models are calculated
+     * once and the result is shared by all frequencies.
+     * 
+     * @param thetaPhiList
+     *            the theta and phi angles where the model is calculated.
+     * @param frequencies
+     *            the frequencies in Hz where the model is calculated.
+     * 
+     * @return new instance of {@link MultiFrequencyField} containing the model.
+     */
+    default MultiFrequencyField calculateField(List<ThetaPhi> thetaPhiList, double[] frequencies) {
+        int angleCount = thetaPhiList.size();
+        double[] real = new double[frequencies.length * angleCount];
+        double[] imaginary = new double[frequencies.length * angleCount];
+        for (int i = 0; i < angleCount; i++) {
+            Complex value = calculateAngle(thetaPhiList.get(i));
+            for (int f = 0; f < frequencies.length; f++) {
+                real[f * angleCount + i] = value.getReal();
+                imaginary[f * angleCount + i] = value.getImaginary();
+            }
+        }
+        return new MultiFrequencyField(thetaPhiList, frequencies.clone(), real, imaginary);
+    }
+
     /**
      * Calculate antenna model at specific angle.
      * 
@@ -67,4 +127,82 @@ public interface AntennaModel {
      */
     Complex calculateAngle(ThetaPhi thetaPhi);
 
+    /**
+     * Calculate antenna model gain in dB at specific angle.
+     * 
+     * @param theta
+     *            the theta angle in radians where the model is calculated.
+     * @param phi
+     *            the phi angle in radians where the model is calculated.
+     * 
+     * @return gain in dB, i.e. 20 * log10 of the magnitude returned by {@link #calculateAngle(ThetaPhi)}.
+     */
+    default double calculateGain(double theta, double phi) {
+        return 20 * Math.log10(calculateAngle(ThetaPhi.fromRadians(theta, phi)).abs());
+    }
+
+    /**
+     * Calculate theta range at given phi cut where gain is at or above threshold. Models without closed form solution
+     * are solved using bisection.
+     * 
+     * @param phi
+     *            the phi angle in radians of the cut.
+     * @param gainThreshold
+     *            the gain threshold in dB.
+     * 
+     * @return {@link AngularRegion} with theta bounds at given phi, or {@link AngularRegion#EMPTY} if threshold is not
+     *         reached.
+     */
+    default AngularRegion calculateThresholdCut(double phi, double gainThreshold) {
+        return ThresholdSolver.solveCut(this, phi, gainThreshold);
+    }
+
+    /**
+     * Calculate angular bounding region where gain is at or above threshold. Models without closed form solution are
+     * solved using bisection.
+     * 
+     * @param gainThreshold
+     *            the gain threshold in dB.
+     * 
+     * @return {@link AngularRegion} bounding all angles reaching threshold, or {@link AngularRegion#EMPTY} if
+     *         threshold is not reached.
+     */
+    default AngularRegion calculateThresholdRegion(double gainThreshold) {
+        return ThresholdSolver.solveRegion(this, gainThreshold);
+    }
+
+    /**
+     * Calculate contour where gain equals threshold. The contour is traced as upper theta bound for increasing phi
+     * followed by lower theta bound for decreasing phi, forming a closed curve.
+     * 
+     * @param gainThreshold
+     *            the gain threshold in dB.
+     * @param phiStep
+     *            the phi spacing in degrees between contour points.
+     * 
+     * @return list of {@link ThetaPhi} angles on the contour, empty if threshold is not reached.
+     * 
+     * @throws IllegalArgumentException
+     *             if phi step is not positive.
+     */
+    default List<ThetaPhi> calculateContour(double gainThreshold, double phiStep) {
+        if (!(phiStep > 0)) {
+            throw new IllegalArgumentException("Phi step must be positive: " + phiStep);
+        }
+        List<ThetaPhi> upper = new ArrayList<>();
+        List<ThetaPhi> lower = new ArrayList<>();
+        int steps = (int) Math.floor(360 / phiStep);
+        for (int i = 0; i <= steps; i++) {
+            double phi = Math.toRadians(-180 + i * phiStep);
+            AngularRegion cut = calculateThresholdCut(phi, gainThreshold);
+            if (!cut.isEmpty()) {
+                upper.add(ThetaPhi.fromRadians(cut.getThetaMax(), phi));
+                lower.add(ThetaPhi.fromRadians(cut.getThetaMin(), phi));
+            }
+        }
+        Collections.reverse(lower);
+        upper.addAll(lower);
+        return upper;
+    }
+
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+/**
+ * Antenna orientation given by azimuth in degrees counterclockwise from the x-axis and downtilt in degrees below the
+ * horizontal plane. Converts directions from global coordinates to local theta and phi angles of the antenna.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+final class AntennaOrientation {
+
+    private final double azimuth;
+    private final double cosAzimuth;
+    private final double sinAzimuth;
+    private final double cosDowntilt;
+    private final double sinDowntilt;
+
+    AntennaOrientation(double azimuth, double downtilt) {
+        this.azimuth = Math.toRadians(azimuth);
+        this.cosAzimuth = Math.cos(this.azimuth);
+        this.sinAzimuth = Math.sin(this.azimuth);
+        this.cosDowntilt = Math.cos(Math.toRadians(downtilt));
+        this.sinDowntilt = Math.sin(Math.toRadians(downtilt));
+    }
+
+    /**
+     * Check if antenna is tilted. Local phi of an untilted antenna is the global phi shifted by azimuth and local theta
+     * equals global theta.
+     */
+    boolean isTilted() {
+        return sinDowntilt != 0;
+    }
+
+    /**
+     * Shift global phi in radians by azimuth, wrapped to [-pi, pi].
+     */
+    double toLocalPhi(double phi) {
+        double localPhi = phi - azimuth;
+        if (localPhi < -Math.PI) {
+            localPhi += 2 * Math.PI;
+        } else if (localPhi > Math.PI) {
+            localPhi -= 2 * Math.PI;
+        }
+        return localPhi;
+    }
+
+    /**
+     * Convert direction to local theta and phi in radians, stored in thetaPhi.
+     */
+    void toThetaPhi(double x, double y, double z, double length, double[] thetaPhi) {
+        // Rotate into antenna frame, first azimuth around z-axis then downtilt around y-axis
+        double x1 = cosAzimuth * x + sinAzimuth * y;
+        double y1 = cosAzimuth * y - sinAzimuth * x;
+        double x2 = x1 * cosDowntilt - z * sinDowntilt;
+        double z2 = x1 * sinDowntilt + z * cosDowntilt;
+        thetaPhi[0] = Math.acos(Math.max(-1, Math.min(1, z2 / length)));
+        thetaPhi[1] = Math.atan2(y1, x2);
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Antenna array model combining an element model with an array factor. Element positions are given in meters and the
+ * array factor depends on frequency through the wave number.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public class ArrayAntennaModel implements AntennaModel {
+
+    /**
+     * Default frequency in Hz.
+     */
+    public static final double DEFAULT_FREQUENCY = 3.5e9;
+
+    /**
+     * Speed of light in vacuum in m/s.
+     */
+    public static final double SPEED_OF_LIGHT = 299792458;
+
+    private final AntennaModel elementModel;
+    private final double frequency;
+    private final double[] elementX;
+    private final double[] elementY;
+    private final double[] elementZ;
+    private final double[] weightReal;
+    private final double[] weightImaginary;
+
+    private ArrayAntennaModel(Builder builder) {
+        if (builder.elementList.isEmpty()) {
+            throw new IllegalArgumentException("Array must contain at least one element");
+        }
+        if (!(builder.frequency > 0) || Double.isInfinite(builder.frequency)) {
+            throw new IllegalArgumentException("Frequency must be positive and finite: " + builder.frequency);
+        }
+        this.elementModel = builder.elementModel;
+        this.frequency = builder.frequency;
+        int size = builder.elementList.size();
+        this.elementX = new double[size];
+        this.elementY = new double[size];
+        this.elementZ = new double[size];
+        this.weightReal = new double[size];
+        this.weightImaginary = new double[size];
+        for (int i = 0; i < size; i++) {
+            double[] element = builder.elementList.get(i);
+            elementX[i] = element[0];
+            elementY[i] = element[1];
+            elementZ[i] = element[2];
+            weightReal[i] = element[3];
+            weightImaginary[i] = element[4];
+        }
+    }
+
+    @Override
+    public Field calculateField(List<ThetaPhi> thetaPhiList) {
+        return calculateField(thetaPhiList, new double[] { frequency }).getField(0);
+    }
+
+    @Override
+    public Complex calculateAngle(ThetaPhi thetaPhi) {
+        double[] projection = new double[elementX.length];
+        calculateProjection(thetaPhi, projection);
+        double[] arrayFactor = new double[2];
+        calculateArrayFactor(projection, waveNumber(frequency), arrayFactor);
+        return elementModel.calculateAngle(thetaPhi).multiply(new Complex(arrayFactor[0], arrayFactor[1]));
+    }
+
+    /**
+     * Calculate antenna model at several frequencies in a single pass. The element pattern and element path
+     * projections are calculated once per angle and only the array factor phase terms are calculated per frequency.
+     * 
+     * @param thetaPhiList
+     *            the theta and phi angles where the model is calculated.
+     * @param frequencies
+     *            the frequencies in Hz where the model is calculated.
+     * 
+     * @return new instance of {@link MultiFrequencyField} containing the model.
+     */
+    @Override
+    public MultiFrequencyField calculateField(List<ThetaPhi> thetaPhiList, double[] frequencies) {
+        int angleCount = thetaPhiList.size();
+        double[] real = new double[frequencies.length * angleCount];
+        double[] imaginary = new double[frequencies.length * angleCount];
+        double[] waveNumbers = new double[frequencies.length];
+        for (int f = 0; f < frequencies.length; f++) {
+            waveNumbers[f] = waveNumber(frequencies[f]);
+        }
+        double[] projection = new double[elementX.length];
+        double[] arrayFactor = new double[2];
+        for (int i = 0; i < angleCount; i++) {
+            ThetaPhi thetaPhi = thetaPhiList.get(i);
+            Complex element = elementModel.calculateAngle(thetaPhi);
+            double elementReal = element.getReal();
+            double elementImaginary = element.getImaginary();
+            calculateProjection(thetaPhi, projection);
+            for (int f = 0; f < frequencies.length; f++) {
+                calculateArrayFactor(projection, waveNumbers[f], arrayFactor);
+                int index = f * angleCount + i;
+                real[index] = elementReal * arrayFactor[0] - elementImaginary * arrayFactor[1];
+                imaginary[index] = elementReal * arrayFactor[1] + elementImaginary * arrayFactor[0];
+            }
+        }
+        return new MultiFrequencyField(thetaPhiList, frequencies.clone(), real, imaginary);
+    }
+
+    private void calculateProjection(ThetaPhi thetaPhi, double[] projection) {
+        double sinTheta = Math.sin(thetaPhi.getTheta());
+        double x = sinTheta * Math.cos(thetaPhi.getPhi());
+        double y = sinTheta * Math.sin(thetaPhi.getPhi());
+        double z = Math.cos(thetaPhi.getTheta());
+        for (int n = 0; n < projection.length; n++) {
+            projection[n] = elementX[n] * x + elementY[n] * y + elementZ[n] * z;
+        }
+    }
+
+    private void calculateArrayFactor(double[] projection, double waveNumber, double[] arrayFactor) {
+        double real = 0;
+        double imaginary = 0;
+        for (int n = 0; n < projection.length; n++) {
+            double phase = waveNumber * projection[n];
+            double cos = Math.cos(phase);
+            double sin = Math.sin(phase);
+            real += weightReal[n] * cos - weightImaginary[n] * sin;
+            imaginary += weightReal[n] * sin + weightImaginary[n] * cos;
+        }
+        arrayFactor[0] = real;
+        arrayFactor[1] = imaginary;
+    }
+
+    private static double waveNumber(double frequency) {
+        return 2 * Math.PI * frequency / SPEED_OF_LIGHT;
+    }
+
+    /**
+     * Retrieve element model.
+     * 
+     * @return element model.
+     */
+    public AntennaModel getElementModel() {
+        return elementModel;
+    }
+
+    /**
+     * Retrieve frequency.
+     * 
+     * @return frequency in Hz used for single frequency calculations.
+     */
+    public double getFrequency() {
+        return frequency;
+    }
+
+    /**
+     * Retrieve number of elements.
+     * 
+     * @return number of elements in array.
+     */
+    public int getElementCount() {
+        return elementX.length;
+    }
+
+    static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link ArrayAntennaModel}.
+     * 
+     * @author Christian Heina (developer@christianheina.com)
+     */
+    public static class Builder {
+
+        private AntennaModel elementModel = NrAntennaModel.newBuilder().build();
+        private double frequency = DEFAULT_FREQUENCY;
+        private final List<double[]> elementList = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Set element model.
+         * 
+         * @param elementModel
+         *            the element model to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setElementModel(AntennaModel elementModel) {
+            this.elementModel = elementModel;
+            return this;
+        }
+
+        /**
+         * Set frequency used for single frequency calculations.
+         * 
+         * @param frequency
+         *            the frequency in Hz to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setFrequency(double frequency) {
+            this.frequency = frequency;
+            return this;
+        }
+
+        /**
+         * Add element with unit weight.
+         * 
+         * @param x
+         *            the element x position in meters.
+         * @param y
+         *            the element y position in meters.
+         * @param z
+         *            the element z position in meters.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder addElement(double x, double y, double z) {
+            return addElement(x, y, z, Complex.ONE);
+        }
+
+        /**
+         * Add element.
+         * 
+         * @param x
+         *            the element x position in meters.
+         * @param y
+         *            the element y position in meters.
+         * @param z
+         *            the element z position in meters.
+         * @param weight
+         *            the complex element weight.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder addElement(double x, double y, double z, Complex weight) {
+            elementList.add(new double[] { x, y, z, weight.getReal(), weight.getImaginary() });
+            return this;
+        }
+
+        /**
+         * Build new instance of {@link ArrayAntennaModel} using this instance of {@link ArrayAntennaModel.Builder}.
+         * 
+         * @return new instance of {@link ArrayAntennaModel}.
+         * 
+         * @throws IllegalArgumentException
+         *             if no element was added or frequency is not positive.
+         */
+        public ArrayAntennaModel build() {
+            return new ArrayAntennaModel(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.FieldType;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Antenna model combining several models as a weighted sum using complex weights. Children extending
+ * {@link GaussianAntennaModel} or {@link NrAntennaModel} are evaluated in a single fused loop over the angles without
+ * intermediate {@link Field} or {@link Complex} objects. Fields of other children are calculated in a single batch
+ * call per child.
+ * <p>
+ * Children can be given an orientation, azimuth in degrees counterclockwise from the x-axis and downtilt in degrees
+ * below the horizontal plane of the composite, for example to combine two {@link NrAntennaModel} panels with different
+ * tilts. Angles are rotated into the frame of each oriented child before it is evaluated.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public class CompositeAntennaModel implements AntennaModel {
+
+    private final AntennaModel[] models;
+    private final Complex[] weights;
+    private final double[] azimuths;
+    private final double[] downtilts;
+    private final AntennaOrientation[] orientations;
+    private final AbstractAntennaModel[] fusedModels;
+    private final double[] weightReal;
+    private final double[] weightImaginary;
+
+    private CompositeAntennaModel(Builder builder) {
+        int size = builder.modelList.size();
+        this.models = builder.modelList.toArray(new AntennaModel[size]);
+        this.weights = builder.weightList.toArray(new Complex[size]);
+        this.fusedModels = new AbstractAntennaModel[size];
+        this.weightReal = new double[size];
+        this.weightImaginary = new double[size];
+        this.azimuths = new double[size];
+        this.downtilts = new double[size];
+        this.orientations = new AntennaOrientation[size];
+        for (int i = 0; i < size; i++) {
+            double[] orientation = builder.orientationList.get(i);
+            azimuths[i] = orientation[0];
+            downtilts[i] = orientation[1];
+            if (orientation[0] != 0 || orientation[1] != 0) {
+                orientations[i] = new AntennaOrientation(orientation[0], orientation[1]);
+            }
+            if (models[i] instanceof AbstractAntennaModel) {
+                // Model phase is zero, so only the magnitude is calculated per angle
+                fusedModels[i] = (AbstractAntennaModel) models[i];
+            }
+            weightReal[i] = weights[i].getReal();
+            weightImaginary[i] = weights[i].getImaginary();
+        }
+    }
+
+    @Override
+    public Field calculateField(List<ThetaPhi> thetaPhiList) {
+        // Children without magnitude path are calculated in batch, so remote children need a single request
+        List<List<Complex>> childValueList = new ArrayList<>(models.length);
+        for (int i = 0; i < models.length; i++) {
+            childValueList.add(fusedModels[i] != null ? null
+                    : models[i].calculateField(toChildThetaPhiList(i, thetaPhiList))
+                            .getElectricField(ElectricField.RELATIVE_GAIN));
+        }
+        List<Complex> fieldDataList = new ArrayList<>(thetaPhiList.size());
+        double[] sum = new double[2];
+        for (int a = 0; a < thetaPhiList.size(); a++) {
+            ThetaPhi thetaPhi = thetaPhiList.get(a);
+            calculateSum(thetaPhi, thetaPhi.getTheta(), thetaPhi.getPhi(), childValueList, a, sum);
+            fieldDataList.add(new Complex(sum[0], sum[1]));
+        }
+        return Field.newBuilder().setThetaPhiList(thetaPhiList)
+                .addElectricField(ElectricField.RELATIVE_GAIN, fieldDataList).setFieldType(FieldType.FARFIELD).build();
+    }
+
+    @Override
+    public Complex calculateAngle(ThetaPhi thetaPhi) {
+        double[] sum = new double[2];
+        calculateSum(thetaPhi, thetaPhi.getTheta(), thetaPhi.getPhi(), null, 0, sum);
+        return new Complex(sum[0], sum[1]);
+    }
+
+    @Override
+    public double calculateGain(double theta, double phi) {
+        double[] sum = new double[2];
+        calculateSum(null, theta, phi, null, 0, sum);
+        return 20 * Math.log10(Math.hypot(sum[0], sum[1]));
+    }
+
+    /**
+     * Calculate antenna model at several frequencies by combining the multi frequency results of all children.
+     * 
+     * @param thetaPhiList
+     *            the theta and phi angles where the model is calculated.
+     * @param frequencies
+     *            the frequencies in Hz where the model is calculated.
+     * 
+     * @return new instance of {@link MultiFrequencyField} containing the model.
+     */
+    @Override
+    public MultiFrequencyField calculateField(List<ThetaPhi> thetaPhiList, double[] frequencies) {
+        int angleCount = thetaPhiList.size();
+        double[] real = new double[frequencies.length * angleCount];
+        double[] imaginary = new double[frequencies.length * angleCount];
+        for (int i = 0; i < models.length; i++) {
+            MultiFrequencyField childField = models[i].calculateField(toChildThetaPhiList(i, thetaPhiList),
+                    frequencies);
+            double wr = weights[i].getReal();
+            double wi = weights[i].getImaginary();
+            for (int f = 0; f < frequencies.length; f++) {
+                for (int a = 0; a < angleCount; a++) {
+                    double childReal = childField.getReal(f, a);
+                    double childImaginary = childField.getImaginary(f, a);
+                    int index = f * angleCount + a;
+                    real[index] += wr * childReal - wi * childImaginary;
+                    imaginary[index] += wr * childImaginary + wi * childReal;
+                }
+            }
+        }
+        return new MultiFrequencyField(thetaPhiList, frequencies.clone(), real, imaginary);
+    }
+
+    private List<ThetaPhi> toChildThetaPhiList(int index, List<ThetaPhi> thetaPhiList) {
+        if (orientations[index] == null) {
+            return thetaPhiList;
+        }
+        List<ThetaPhi> childThetaPhiList = new ArrayList<>(thetaPhiList.size());
+        double[] local = new double[2];
+        for (ThetaPhi thetaPhi : thetaPhiList) {
+            toLocal(orientations[index], thetaPhi.getTheta(), thetaPhi.getPhi(), local);
+            childThetaPhiList.add(ThetaPhi.fromRadians(local[0], local[1]));
+        }
+        return childThetaPhiList;
+    }
+
+    /**
+     * Accumulate weighted sum of all models into sum as real and imaginary part. Models without magnitude path take
+     * their value at angleIndex from childValueList when given, otherwise the angle is created from theta and phi only
+     * when such a model needs it. Oriented models get angles in their own frame.
+     */
+    private void calculateSum(ThetaPhi thetaPhi, double theta, double phi, List<List<Complex>> childValueList,
+            int angleIndex, double[] sum) {
+        ThetaPhi angle = thetaPhi;
+        double[] local = null;
+        double real = 0;
+        double imaginary = 0;
+        for (int i = 0; i < models.length; i++) {
+            double childTheta = theta;
+            double childPhi = phi;
+            ThetaPhi childAngle = angle;
+            boolean batched = fusedModels[i] == null && childValueList != null;
+            if (orientations[i] != null && !batched) {
+                if (local == null) {
+                    local = new double[2];
+                }
+                toLocal(orientations[i], theta, phi, local);
+                childTheta = local[0];
+                childPhi = local[1];
+                childAngle = null;
+            }
+            if (fusedModels[i] != null) {
+                double magnitude = fusedModels[i].calculateMagnitude(childTheta, childPhi);
+                real += weightReal[i] * magnitude;
+                imaginary += weightImaginary[i] * magnitude;
+            } else {
+                Complex value;
+                if (batched) {
+                    value = childValueList.get(i).get(angleIndex);
+                } else {
+                    if (childAngle == null) {
+                        childAngle = ThetaPhi.fromRadians(childTheta, childPhi);
+                        if (orientations[i] == null) {
+                            angle = childAngle;
+                        }
+                    }
+                    value = models[i].calculateAngle(childAngle);
+                }
+                real += weightReal[i] * value.getReal() - weightImaginary[i] * value.getImaginary();
+                imaginary += weightReal[i] * value.getImaginary() + weightImaginary[i] * value.getReal();
+            }
+        }
+        sum[0] = real;
+        sum[1] = imaginary;
+    }
+
+    private static void toLocal(AntennaOrientation orientation, double theta, double phi, double[] local) {
+        double sinTheta = Math.sin(theta);
+        orientation.toThetaPhi(sinTheta * Math.cos(phi), sinTheta * Math.sin(phi), Math.cos(theta), 1, local);
+    }
+
+    /**
+     * Retrieve number of combined models.
+     * 
+     * @return number of combined models.
+     */
+    public int getModelCount() {
+        return models.length;
+    }
+
+    /**
+     * Retrieve combined model.
+     * 
+     * @param index
+     *            the model index.
+     * 
+     * @return model at given index.
+     */
+    public AntennaModel getModel(int index) {
+        return models[index];
+    }
+
+    /**
+     * Retrieve weight of combined model.
+     * 
+     * @param index
+     *            the model index.
+     * 
+     * @return complex weight of model at given index.
+     */
+    public Complex getWeight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Retrieve azimuth of combined model.
+     * 
+     * @param index
+     *            the model index.
+     * 
+     * @return azimuth in degrees of model at given index.
+     */
+    public double getAzimuth(int index) {
+        return azimuths[index];
+    }
+
+    /**
+     * Retrieve downtilt of combined model.
+     * 
+     * @param index
+     *            the model index.
+     * 
+     * @return downtilt in degrees of model at given index.
+     */
+    public double getDowntilt(int index) {
+        return downtilts[index];
+    }
+
+    static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link CompositeAntennaModel}.
+     * 
+     * @author Christian Heina (developer@christianheina.com)
+     */
+    public static class Builder {
+
+        private final List<AntennaModel> modelList = new ArrayList<>();
+        private final List<Complex> weightList = new ArrayList<>();
+        private final List<double[]> orientationList = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Add model with unit weight.
+         * 
+         * @param model
+         *            the model to add.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder addModel(AntennaModel model) {
+            return addModel(model, Complex.ONE);
+        }
+
+        /**
+         * Add model.
+         * 
+         * @param model
+         *            the model to add.
+         * @param weight
+         *            the complex weight of the model.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder addModel(AntennaModel model, Complex weight) {
+            return addModel(model, weight, 0, 0);
+        }
+
+        /**
+         * Add oriented model.
+         * 
+         * @param model
+         *            the model to add.
+         * @param weight
+         *            the complex weight of the model.
+         * @param azimuth
+         *            the azimuth of the model in degrees counterclockwise from the x-axis.
+         * @param downtilt
+         *            the downtilt of the model in degrees below the horizontal plane.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder addModel(AntennaModel model, Complex weight, double azimuth, double downtilt) {
+            modelList.add(model);
+            weightList.add(weight);
+            orientationList.add(new double[] { azimuth, downtilt });
+            return this;
+        }
+
+        /**
+         * Build new instance of {@link CompositeAntennaModel} using this instance of
+         * {@link CompositeAntennaModel.Builder}.
+         * 
+         * @return new instance of {@link CompositeAntennaModel}.
+         */
+        public CompositeAntennaModel build() {
+            return new CompositeAntennaModel(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.List;
+
+/**
+ * Coverage raster produced by {@link CoverageRasterEngine}, stored as a grid of {@link CoverageTile} in row major
+ * order.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class CoverageRaster {
+
+    private final int columns;
+    private final int rows;
+    private final int tileSize;
+    private final int tileColumns;
+    private final List<CoverageTile> tileList;
+
+    CoverageRaster(int columns, int rows, int tileSize, int tileColumns, List<CoverageTile> tileList) {
+        this.columns = columns;
+        this.rows = rows;
+        this.tileSize = tileSize;
+        this.tileColumns = tileColumns;
+        this.tileList = tileList;
+    }
+
+    /**
+     * Retrieve number of pixel columns.
+     * 
+     * @return number of pixel columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Retrieve number of pixel rows.
+     * 
+     * @return number of pixel rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Retrieve tile size.
+     * 
+     * @return number of pixel columns and rows of full tiles.
+     */
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Retrieve tiles.
+     * 
+     * @return list of tiles in row major order.
+     */
+    public List<CoverageTile> getTileList() {
+        return tileList;
+    }
+
+    /**
+     * Retrieve tile.
+     * 
+     * @param tileColumn
+     *            the column of tile in tile grid.
+     * @param tileRow
+     *            the row of tile in tile grid.
+     * 
+     * @return {@link CoverageTile} at given position.
+     */
+    public CoverageTile getTile(int tileColumn, int tileRow) {
+        return tileList.get(tileRow * tileColumns + tileColumn);
+    }
+
+    /**
+     * Retrieve gain of pixel.
+     * 
+     * @param column
+     *            the raster column.
+     * @param row
+     *            the raster row.
+     * 
+     * @return strongest gain in dB, or negative infinity if no site covers the pixel.
+     */
+    public double getGain(int column, int row) {
+        return getTile(column / tileSize, row / tileSize).getGain(column % tileSize, row % tileSize);
+    }
+
+    /**
+     * Retrieve site of pixel.
+     * 
+     * @param column
+     *            the raster column.
+     * @param row
+     *            the raster row.
+     * 
+     * @return index of site with strongest gain, or -1 if no site covers the pixel.
+     */
+    public int getSiteIndex(int column, int row) {
+        return getTile(column / tileSize, row / tileSize).getSiteIndex(column % tileSize, row % tileSize);
+    }
+
+}
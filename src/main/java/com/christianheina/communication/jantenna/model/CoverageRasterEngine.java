@@ -0,0 +1,688 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Engine calculating coverage rasters of antenna gain at a fixed UE height. The angles from a site to a pixel only
+ * depend on the pixel offset and the height difference, so angle tables are precomputed per height difference for all
+ * offsets within the maximum distance and shared by every site at that height. Untilted sites use tables of theta and
+ * phi with azimuth applied as a phi shift, tilted sites use tables of unit direction vectors that are rotated per site.
+ * Sites are snapped to the nearest pixel center to make offsets exact.
+ * <p>
+ * A table holds (2 * maximumDistance / pixelSize + 1)^2 entries of two or three doubles and is built once, so the
+ * maximum distance is required and tables are only kept for the height differences shared by the most sites, up to the
+ * maximum number of angle tables. Sites at other height differences are evaluated directly per pixel, which costs
+ * about as much as building the part of a table the site covers but needs no memory. Height differences can be
+ * quantized so more sites share a table. Tiles are calculated independently on a fixed thread pool, visiting sites
+ * grouped by table.
+ * <p>
+ * Pixel (0, 0) is centered on the origin, columns increase along the x-axis and rows along the y-axis. Site azimuth is
+ * given in degrees counterclockwise from the x-axis and downtilt in degrees below the horizontal plane.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public class CoverageRasterEngine {
+
+    /**
+     * Default pixel size.
+     */
+    public static final double DEFAULT_PIXEL_SIZE = 10;
+
+    /**
+     * Default UE height.
+     */
+    public static final double DEFAULT_UE_HEIGHT = 1.5;
+
+    /**
+     * Default height difference resolution, zero disables quantization.
+     */
+    public static final double DEFAULT_HEIGHT_RESOLUTION = 0;
+
+    /**
+     * Default maximum number of angle tables.
+     */
+    public static final int DEFAULT_MAXIMUM_ANGLE_TABLES = 8;
+
+    /**
+     * Default number of pixel columns and rows per tile.
+     */
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    /**
+     * Default number of threads calculating tiles.
+     */
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final int MAXIMUM_TABLE_WIDTH = (int) Math.sqrt(Integer.MAX_VALUE);
+
+    private final double originX;
+    private final double originY;
+    private final double pixelSize;
+    private final int columns;
+    private final int rows;
+    private final double ueHeight;
+    private final double maximumDistance;
+    private final double heightResolution;
+    private final int radius;
+    private final int tileSize;
+    private final int threads;
+    private final List<Site> siteList;
+    private final int[] siteOrder;
+    private final Set<TableKey> tableKeySet;
+    private final Map<TableKey, AngleTable> angleTableMap = new ConcurrentHashMap<>();
+
+    private CoverageRasterEngine(Builder builder) {
+        if (builder.columns <= 0 || builder.rows <= 0 || builder.pixelSize <= 0 || builder.tileSize <= 0) {
+            throw new IllegalArgumentException("Raster size, pixel size and tile size must be positive");
+        }
+        if (!(builder.maximumDistance > 0) || Double.isInfinite(builder.maximumDistance)) {
+            throw new IllegalArgumentException(
+                    "Maximum distance must be positive and finite: " + builder.maximumDistance);
+        }
+        if (builder.maximumAngleTables < 0 || !(builder.heightResolution >= 0)) {
+            throw new IllegalArgumentException("Angle table count and height resolution must not be negative");
+        }
+        this.originX = builder.originX;
+        this.originY = builder.originY;
+        this.pixelSize = builder.pixelSize;
+        this.columns = builder.columns;
+        this.rows = builder.rows;
+        this.ueHeight = builder.ueHeight;
+        this.maximumDistance = builder.maximumDistance;
+        this.heightResolution = builder.heightResolution;
+        this.tileSize = builder.tileSize;
+        this.threads = builder.threads;
+        List<Site> sites = new ArrayList<>(builder.siteList.size());
+        long extent = 0;
+        for (SiteParameters parameters : builder.siteList) {
+            AntennaOrientation orientation = new AntennaOrientation(parameters.azimuth, parameters.downtilt);
+            TableKey key = new TableKey(quantize(ueHeight - parameters.height), orientation.isTilted());
+            Site site = new Site(parameters.model, (int) Math.round((parameters.x - originX) / pixelSize),
+                    (int) Math.round((parameters.y - originY) / pixelSize), ueHeight - parameters.height,
+                    orientation, key);
+            sites.add(site);
+            extent = Math.max(extent, Math.max(Math.abs((long) site.column), Math.abs(site.column - columns + 1L)));
+            extent = Math.max(extent, Math.max(Math.abs((long) site.row), Math.abs(site.row - rows + 1L)));
+        }
+        this.siteList = Collections.unmodifiableList(sites);
+        // Offsets beyond the farthest raster pixel of any site are never looked up
+        long tableRadius = (long) Math.min(extent, Math.floor(maximumDistance / pixelSize));
+        if (2 * tableRadius + 1 > MAXIMUM_TABLE_WIDTH) {
+            throw new IllegalArgumentException("Maximum distance too large for pixel size: " + maximumDistance);
+        }
+        this.radius = (int) tableRadius;
+        this.siteOrder = new int[sites.size()];
+        List<Integer> order = new ArrayList<>(sites.size());
+        for (int i = 0; i < sites.size(); i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing((Integer i) -> sites.get(i).key.heightDifference)
+                .thenComparing(i -> sites.get(i).key.tilted));
+        for (int i = 0; i < siteOrder.length; i++) {
+            siteOrder[i] = order.get(i);
+        }
+        this.tableKeySet = selectTableKeys(sites, builder.maximumAngleTables);
+    }
+
+    /**
+     * Select keys shared by the most sites, a table only pays off when it replaces direct evaluation for many sites.
+     */
+    private static Set<TableKey> selectTableKeys(List<Site> sites, int maximumAngleTables) {
+        Map<TableKey, Integer> siteCountMap = new LinkedHashMap<>();
+        for (Site site : sites) {
+            siteCountMap.merge(site.key, 1, Integer::sum);
+        }
+        List<Map.Entry<TableKey, Integer>> entryList = new ArrayList<>(siteCountMap.entrySet());
+        entryList.sort((first, second) -> Integer.compare(second.getValue(), first.getValue()));
+        Set<TableKey> keySet = new HashSet<>();
+        for (int i = 0; i < Math.min(maximumAngleTables, entryList.size()); i++) {
+            keySet.add(entryList.get(i).getKey());
+        }
+        return keySet;
+    }
+
+    private double quantize(double heightDifference) {
+        if (heightResolution == 0) {
+            return heightDifference;
+        }
+        return Math.round(heightDifference / heightResolution) * heightResolution;
+    }
+
+    /**
+     * Calculate all tiles of the raster, distributing tiles over the configured number of threads.
+     * 
+     * @return new instance of {@link CoverageRaster}.
+     */
+    public CoverageRaster calculate() {
+        int tileColumns = getTileColumns();
+        int tileRows = getTileRows();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tileColumns * tileRows)));
+        try {
+            List<Future<CoverageTile>> futureList = new ArrayList<>(tileColumns * tileRows);
+            for (int tileRow = 0; tileRow < tileRows; tileRow++) {
+                for (int tileColumn = 0; tileColumn < tileColumns; tileColumn++) {
+                    int column = tileColumn;
+                    int row = tileRow;
+                    futureList.add(executor.submit(() -> calculateTile(column, row)));
+                }
+            }
+            List<CoverageTile> tileList = new ArrayList<>(futureList.size());
+            for (Future<CoverageTile> future : futureList) {
+                tileList.add(future.get());
+            }
+            return new CoverageRaster(columns, rows, tileSize, tileColumns, Collections.unmodifiableList(tileList));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while calculating raster", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Calculate single tile of the raster in the calling thread.
+     * 
+     * @param tileColumn
+     *            the column of tile in tile grid.
+     * @param tileRow
+     *            the row of tile in tile grid.
+     * 
+     * @return new instance of {@link CoverageTile}.
+     */
+    public CoverageTile calculateTile(int tileColumn, int tileRow) {
+        if (tileColumn < 0 || tileColumn >= getTileColumns() || tileRow < 0 || tileRow >= getTileRows()) {
+            throw new IndexOutOfBoundsException("Tile: " + tileColumn + ", " + tileRow);
+        }
+        int fromColumn = tileColumn * tileSize;
+        int fromRow = tileRow * tileSize;
+        int width = Math.min(tileSize, columns - fromColumn);
+        int height = Math.min(tileSize, rows - fromRow);
+        double[] gains = new double[width * height];
+        int[] siteIndices = new int[width * height];
+        Arrays.fill(gains, Double.NEGATIVE_INFINITY);
+        Arrays.fill(siteIndices, -1);
+        double[] thetaPhi = new double[2];
+        AngleTable table = null;
+        for (int i : siteOrder) {
+            Site site = siteList.get(i);
+            int columnStart = Math.max(fromColumn, site.column - radius);
+            int columnEnd = Math.min(fromColumn + width - 1, site.column + radius);
+            int rowStart = Math.max(fromRow, site.row - radius);
+            int rowEnd = Math.min(fromRow + height - 1, site.row + radius);
+            if (columnStart > columnEnd || rowStart > rowEnd) {
+                continue;
+            }
+            if (!tableKeySet.contains(site.key)) {
+                calculateDirect(site, i, columnStart, columnEnd, rowStart, rowEnd, fromColumn, fromRow, width, gains,
+                        siteIndices, thetaPhi);
+                continue;
+            }
+            // Sites are ordered by table, so the table is only looked up when the key changes
+            if (table == null || !table.key.equals(site.key)) {
+                table = getAngleTable(site.key);
+            }
+            for (int row = rowStart; row <= rowEnd; row++) {
+                int tableIndex = (row - site.row + radius) * table.width + (columnStart - site.column + radius);
+                int tileIndex = (row - fromRow) * width + (columnStart - fromColumn);
+                for (int column = columnStart; column <= columnEnd; column++, tableIndex++, tileIndex++) {
+                    update(gains, siteIndices, tileIndex, calculateGain(site, table, tableIndex, thetaPhi), i);
+                }
+            }
+        }
+        return new CoverageTile(tileColumn, tileRow, fromColumn, fromRow, width, height, gains, siteIndices);
+    }
+
+    private void calculateDirect(Site site, int siteIndex, int columnStart, int columnEnd, int rowStart, int rowEnd,
+            int fromColumn, int fromRow, int width, double[] gains, int[] siteIndices, double[] thetaPhi) {
+        double dz = site.heightDifference;
+        for (int row = rowStart; row <= rowEnd; row++) {
+            double dy = (row - site.row) * pixelSize;
+            int tileIndex = (row - fromRow) * width + (columnStart - fromColumn);
+            for (int column = columnStart; column <= columnEnd; column++, tileIndex++) {
+                double dx = (column - site.column) * pixelSize;
+                double horizontalDistance = Math.hypot(dx, dy);
+                double distance = Math.hypot(horizontalDistance, dz);
+                if (horizontalDistance > maximumDistance || distance == 0) {
+                    continue;
+                }
+                site.orientation.toThetaPhi(dx, dy, dz, distance, thetaPhi);
+                update(gains, siteIndices, tileIndex, site.model.calculateGain(thetaPhi[0], thetaPhi[1]), siteIndex);
+            }
+        }
+    }
+
+    private static void update(double[] gains, int[] siteIndices, int tileIndex, double gain, int siteIndex) {
+        // Ties go to the lowest site index, independent of visiting order
+        if (gain > gains[tileIndex]
+                || gain == gains[tileIndex] && gain > Double.NEGATIVE_INFINITY && siteIndex < siteIndices[tileIndex]) {
+            gains[tileIndex] = gain;
+            siteIndices[tileIndex] = siteIndex;
+        }
+    }
+
+    private static double calculateGain(Site site, AngleTable table, int index, double[] thetaPhi) {
+        if (site.key.tilted) {
+            double ux = table.ux[index];
+            if (Double.isNaN(ux)) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            site.orientation.toThetaPhi(ux, table.uy[index], table.uz[index], 1, thetaPhi);
+            return site.model.calculateGain(thetaPhi[0], thetaPhi[1]);
+        }
+        double theta = table.theta[index];
+        if (Double.isNaN(theta)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return site.model.calculateGain(theta, site.orientation.toLocalPhi(table.phi[index]));
+    }
+
+    private AngleTable getAngleTable(TableKey key) {
+        // Tiles needing a table being built wait for it instead of building it again
+        return angleTableMap.computeIfAbsent(key, this::createAngleTable);
+    }
+
+    private AngleTable createAngleTable(TableKey key) {
+        int width = 2 * radius + 1;
+        double heightDifference = key.heightDifference;
+        AngleTable table = new AngleTable(key, width);
+        for (int i = -radius; i <= radius; i++) {
+            for (int j = -radius; j <= radius; j++) {
+                int index = (i + radius) * width + (j + radius);
+                double dx = j * pixelSize;
+                double dy = i * pixelSize;
+                double horizontalDistance = Math.hypot(dx, dy);
+                double distance = Math.hypot(horizontalDistance, heightDifference);
+                boolean covered = horizontalDistance <= maximumDistance && distance != 0;
+                if (key.tilted) {
+                    table.ux[index] = covered ? dx / distance : Double.NaN;
+                    table.uy[index] = dy / distance;
+                    table.uz[index] = heightDifference / distance;
+                } else {
+                    table.theta[index] = covered ? Math.acos(heightDifference / distance) : Double.NaN;
+                    table.phi[index] = Math.atan2(dy, dx);
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Retrieve number of built angle tables.
+     * 
+     * @return number of angle tables built so far.
+     */
+    public int getAngleTableCount() {
+        return angleTableMap.size();
+    }
+
+    /**
+     * Retrieve number of sites.
+     * 
+     * @return number of sites.
+     */
+    public int getSiteCount() {
+        return siteList.size();
+    }
+
+    /**
+     * Retrieve number of pixel columns.
+     * 
+     * @return number of pixel columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Retrieve number of pixel rows.
+     * 
+     * @return number of pixel rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Retrieve number of tile columns.
+     * 
+     * @return number of tiles along the x-axis.
+     */
+    public int getTileColumns() {
+        return (columns + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * Retrieve number of tile rows.
+     * 
+     * @return number of tiles along the y-axis.
+     */
+    public int getTileRows() {
+        return (rows + tileSize - 1) / tileSize;
+    }
+
+    /**
+     * Create instance of {@link CoverageRasterEngine.Builder}.
+     * 
+     * @return new {@link CoverageRasterEngine.Builder} instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Angle table identity, tilted and untilted sites need different tables.
+     */
+    private static final class TableKey {
+
+        private final double heightDifference;
+        private final boolean tilted;
+
+        private TableKey(double heightDifference, boolean tilted) {
+            this.heightDifference = heightDifference;
+            this.tilted = tilted;
+        }
+
+        @Override
+        public int hashCode() {
+            return Double.hashCode(heightDifference) * 31 + Boolean.hashCode(tilted);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TableKey)) {
+                return false;
+            }
+            TableKey other = (TableKey) obj;
+            return Double.compare(heightDifference, other.heightDifference) == 0 && tilted == other.tilted;
+        }
+
+    }
+
+    /**
+     * Per pixel offset, stored row major with the site in the center, theta and phi for untilted sites or unit
+     * direction vector for tilted sites. The first array holds NaN for offsets beyond the maximum distance.
+     */
+    private static final class AngleTable {
+
+        private final TableKey key;
+        private final int width;
+        private final double[] theta;
+        private final double[] phi;
+        private final double[] ux;
+        private final double[] uy;
+        private final double[] uz;
+
+        private AngleTable(TableKey key, int width) {
+            int size = width * width;
+            this.key = key;
+            this.width = width;
+            this.theta = key.tilted ? null : new double[size];
+            this.phi = key.tilted ? null : new double[size];
+            this.ux = key.tilted ? new double[size] : null;
+            this.uy = key.tilted ? new double[size] : null;
+            this.uz = key.tilted ? new double[size] : null;
+        }
+
+    }
+
+    private static final class SiteParameters {
+
+        private final AntennaModel model;
+        private final double x;
+        private final double y;
+        private final double height;
+        private final double azimuth;
+        private final double downtilt;
+
+        private SiteParameters(AntennaModel model, double x, double y, double height, double azimuth,
+                double downtilt) {
+            this.model = model;
+            this.x = x;
+            this.y = y;
+            this.height = height;
+            this.azimuth = azimuth;
+            this.downtilt = downtilt;
+        }
+
+    }
+
+    private static final class Site {
+
+        private final AntennaModel model;
+        private final int column;
+        private final int row;
+        private final double heightDifference;
+        private final AntennaOrientation orientation;
+        private final TableKey key;
+
+        private Site(AntennaModel model, int column, int row, double heightDifference, AntennaOrientation orientation,
+                TableKey key) {
+            this.model = model;
+            this.column = column;
+            this.row = row;
+            this.heightDifference = heightDifference;
+            this.orientation = orientation;
+            this.key = key;
+        }
+
+    }
+
+    /**
+     * Builder for {@link CoverageRasterEngine}.
+     * 
+     * @author Christian Heina (developer@christianheina.com)
+     */
+    public static class Builder {
+
+        private final List<SiteParameters> siteList = new ArrayList<>();
+        private double originX = 0;
+        private double originY = 0;
+        private double pixelSize = DEFAULT_PIXEL_SIZE;
+        private int columns;
+        private int rows;
+        private double ueHeight = DEFAULT_UE_HEIGHT;
+        private double maximumDistance = Double.NaN;
+        private double heightResolution = DEFAULT_HEIGHT_RESOLUTION;
+        private int maximumAngleTables = DEFAULT_MAXIMUM_ANGLE_TABLES;
+        private int tileSize = DEFAULT_TILE_SIZE;
+        private int threads = DEFAULT_THREADS;
+
+        private Builder() {
+        }
+
+        /**
+         * Add site. Site position is snapped to the nearest pixel center.
+         * 
+         * @param model
+         *            the antenna model of the site.
+         * @param x
+         *            the site x coordinate.
+         * @param y
+         *            the site y coordinate.
+         * @param height
+         *            the antenna height.
+         * @param azimuth
+         *            the site azimuth in degrees counterclockwise from the x-axis.
+         * @param downtilt
+         *            the site downtilt in degrees below the horizontal plane.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder addSite(AntennaModel model, double x, double y, double height, double azimuth,
+                double downtilt) {
+            siteList.add(new SiteParameters(model, x, y, height, azimuth, downtilt));
+            return this;
+        }
+
+        /**
+         * Set center of pixel (0, 0).
+         * 
+         * @param originX
+         *            the x coordinate to set.
+         * @param originY
+         *            the y coordinate to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setOrigin(double originX, double originY) {
+            this.originX = originX;
+            this.originY = originY;
+            return this;
+        }
+
+        /**
+         * Set pixel size.
+         * 
+         * @param pixelSize
+         *            the pixel side length to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setPixelSize(double pixelSize) {
+            this.pixelSize = pixelSize;
+            return this;
+        }
+
+        /**
+         * Set raster size.
+         * 
+         * @param columns
+         *            the number of pixel columns to set.
+         * @param rows
+         *            the number of pixel rows to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setSize(int columns, int rows) {
+            this.columns = columns;
+            this.rows = rows;
+            return this;
+        }
+
+        /**
+         * Set UE height.
+         * 
+         * @param ueHeight
+         *            the UE height to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setUeHeight(double ueHeight) {
+            this.ueHeight = ueHeight;
+            return this;
+        }
+
+        /**
+         * Set maximum horizontal distance between site and pixel, pixels further away are not covered by the site.
+         * Angle tables hold one entry per pixel offset within this distance. Required.
+         * 
+         * @param maximumDistance
+         *            the positive and finite maximum distance to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setMaximumDistance(double maximumDistance) {
+            this.maximumDistance = maximumDistance;
+            return this;
+        }
+
+        /**
+         * Set height difference resolution. Site to UE height differences are rounded to a multiple of the resolution,
+         * so sites of similar height share angle tables.
+         * 
+         * @param heightResolution
+         *            the height resolution to set, zero disables quantization.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setHeightResolution(double heightResolution) {
+            this.heightResolution = heightResolution;
+            return this;
+        }
+
+        /**
+         * Set maximum number of angle tables. Tables are kept for the height differences shared by the most sites,
+         * other sites are evaluated directly per pixel.
+         * 
+         * @param maximumAngleTables
+         *            the maximum number of tables to set, zero evaluates all sites directly.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setMaximumAngleTables(int maximumAngleTables) {
+            this.maximumAngleTables = maximumAngleTables;
+            return this;
+        }
+
+        /**
+         * Set tile size.
+         * 
+         * @param tileSize
+         *            the number of pixel columns and rows per tile to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setTileSize(int tileSize) {
+            this.tileSize = tileSize;
+            return this;
+        }
+
+        /**
+         * Set number of threads calculating tiles.
+         * 
+         * @param threads
+         *            the number of threads to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Build new instance of {@link CoverageRasterEngine} using this instance of
+         * {@link CoverageRasterEngine.Builder}.
+         * 
+         * @return new instance of {@link CoverageRasterEngine}.
+         */
+        public CoverageRasterEngine build() {
+            return new CoverageRasterEngine(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+/**
+ * Rectangular tile of a {@link CoverageRaster} holding per pixel the strongest gain over all sites and the index of the
+ * site providing it.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class CoverageTile {
+
+    private final int tileColumn;
+    private final int tileRow;
+    private final int columnOffset;
+    private final int rowOffset;
+    private final int width;
+    private final int height;
+    private final double[] gains;
+    private final int[] siteIndices;
+
+    CoverageTile(int tileColumn, int tileRow, int columnOffset, int rowOffset, int width, int height, double[] gains,
+            int[] siteIndices) {
+        this.tileColumn = tileColumn;
+        this.tileRow = tileRow;
+        this.columnOffset = columnOffset;
+        this.rowOffset = rowOffset;
+        this.width = width;
+        this.height = height;
+        this.gains = gains;
+        this.siteIndices = siteIndices;
+    }
+
+    /**
+     * Retrieve tile column.
+     * 
+     * @return column of tile in tile grid.
+     */
+    public int getTileColumn() {
+        return tileColumn;
+    }
+
+    /**
+     * Retrieve tile row.
+     * 
+     * @return row of tile in tile grid.
+     */
+    public int getTileRow() {
+        return tileRow;
+    }
+
+    /**
+     * Retrieve column offset.
+     * 
+     * @return raster column of first tile column.
+     */
+    public int getColumnOffset() {
+        return columnOffset;
+    }
+
+    /**
+     * Retrieve row offset.
+     * 
+     * @return raster row of first tile row.
+     */
+    public int getRowOffset() {
+        return rowOffset;
+    }
+
+    /**
+     * Retrieve width.
+     * 
+     * @return number of pixel columns in tile.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Retrieve height.
+     * 
+     * @return number of pixel rows in tile.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Retrieve gain of pixel.
+     * 
+     * @param column
+     *            the pixel column within tile.
+     * @param row
+     *            the pixel row within tile.
+     * 
+     * @return strongest gain in dB, or negative infinity if no site covers the pixel.
+     */
+    public double getGain(int column, int row) {
+        return gains[index(column, row)];
+    }
+
+    /**
+     * Retrieve site of pixel.
+     * 
+     * @param column
+     *            the pixel column within tile.
+     * @param row
+     *            the pixel row within tile.
+     * 
+     * @return index of site with strongest gain, or -1 if no site covers the pixel.
+     */
+    public int getSiteIndex(int column, int row) {
+        return siteIndices[index(column, row)];
+    }
+
+    private int index(int column, int row) {
+        if (column < 0 || column >= width || row < 0 || row >= height) {
+            throw new IndexOutOfBoundsException("Pixel: " + column + ", " + row + ", Size: " + width + "x" + height);
+        }
+        return row * width + column;
+    }
+
+}
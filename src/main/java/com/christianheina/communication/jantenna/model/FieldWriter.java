@@ -0,0 +1,348 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.math3.complex.Complex;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+import com.christianheina.communication.jantenna.model.enums.FieldExportFormat;
+
+/**
+ * Streaming writer of theta, phi and gain records. Theta and phi are written in radians and gain in dB, all as
+ * little-endian float64. Records are encoded into a reusable direct buffer and written through a {@link FileChannel},
+ * so fields and models can be exported chunk by chunk without materializing the whole grid. For
+ * {@link FieldExportFormat#NPY} the header is sized for any record count and rewritten on {@link #close()}. Instances
+ * are not thread safe.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class FieldWriter implements Closeable {
+
+    /**
+     * Number of bytes per record.
+     */
+    public static final int RECORD_BYTES = 3 * Double.BYTES;
+
+    /**
+     * Default number of records encoded before writing to file.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    static final int NPY_HEADER_BYTES = 192;
+
+    private static final byte[] NPY_MAGIC = { (byte) 0x93, 'N', 'U', 'M', 'P', 'Y', 1, 0 };
+    private static final String NPY_DESCRIPTION = "{'descr': [('theta', '<f8'), ('phi', '<f8'), ('gain', '<f8')], "
+            + "'fortran_order': False, 'shape': (";
+    private static final Pattern NPY_SHAPE_PATTERN = Pattern.compile("'shape': \\((\\d+),\\)");
+
+    private final FileChannel channel;
+    private final FieldExportFormat format;
+    private final ByteBuffer buffer;
+    private long recordCount;
+
+    private FieldWriter(FileChannel channel, FieldExportFormat format, int chunkSize, long recordCount) {
+        this.channel = channel;
+        this.format = format;
+        this.buffer = ByteBuffer.allocateDirect(chunkSize * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        this.recordCount = recordCount;
+    }
+
+    /**
+     * Create new file, replacing any existing file.
+     * 
+     * @param path
+     *            the file to write.
+     * @param format
+     *            the file format.
+     * 
+     * @return new instance of {@link FieldWriter}.
+     * 
+     * @throws IOException
+     *             if file could not be created.
+     */
+    public static FieldWriter create(Path path, FieldExportFormat format) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        FieldWriter writer = new FieldWriter(channel, format, DEFAULT_CHUNK_SIZE, 0);
+        if (format == FieldExportFormat.NPY) {
+            writer.writeHeader();
+        }
+        return writer;
+    }
+
+    /**
+     * Open file for appending records, creating it if it does not exist.
+     * 
+     * @param path
+     *            the file to append to.
+     * @param format
+     *            the file format, must match the format of an existing file.
+     * 
+     * @return new instance of {@link FieldWriter} positioned after the last record.
+     * 
+     * @throws IOException
+     *             if file could not be opened or is not a file previously written in given format.
+     */
+    public static FieldWriter append(Path path, FieldExportFormat format) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long size = channel.size();
+            if (size == 0) {
+                FieldWriter writer = new FieldWriter(channel, format, DEFAULT_CHUNK_SIZE, 0);
+                if (format == FieldExportFormat.NPY) {
+                    writer.writeHeader();
+                }
+                return writer;
+            }
+            long recordCount;
+            long dataOffset;
+            if (format == FieldExportFormat.NPY) {
+                recordCount = readHeader(channel);
+                dataOffset = NPY_HEADER_BYTES;
+            } else {
+                if (startsWithNpyMagic(channel)) {
+                    throw new IOException("Cannot append raw records to a .npy file");
+                }
+                recordCount = size / RECORD_BYTES;
+                dataOffset = 0;
+            }
+            if (size != dataOffset + recordCount * RECORD_BYTES) {
+                throw new IOException("File size " + size + " does not match record count " + recordCount);
+            }
+            channel.position(size);
+            return new FieldWriter(channel, format, DEFAULT_CHUNK_SIZE, recordCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write records from primitive arrays.
+     * 
+     * @param theta
+     *            the theta angles in radians.
+     * @param phi
+     *            the phi angles in radians.
+     * @param gain
+     *            the gain values in dB.
+     * @param offset
+     *            the index of the first record to write.
+     * @param length
+     *            the number of records to write.
+     * 
+     * @throws IOException
+     *             if records could not be written.
+     */
+    public void write(double[] theta, double[] phi, double[] gain, int offset, int length) throws IOException {
+        for (int i = offset; i < offset + length; i++) {
+            put(theta[i], phi[i], gain[i]);
+        }
+    }
+
+    /**
+     * Write {@link ElectricField#RELATIVE_GAIN} of field.
+     * 
+     * @param field
+     *            the field to write.
+     * 
+     * @throws IOException
+     *             if records could not be written.
+     */
+    public void write(Field field) throws IOException {
+        List<ThetaPhi> thetaPhiList = field.getThetaPhiList();
+        List<Complex> valueList = field.getElectricField(ElectricField.RELATIVE_GAIN);
+        for (int i = 0; i < thetaPhiList.size(); i++) {
+            ThetaPhi thetaPhi = thetaPhiList.get(i);
+            put(thetaPhi.getTheta(), thetaPhi.getPhi(), 20 * Math.log10(valueList.get(i).abs()));
+        }
+    }
+
+    /**
+     * Calculate and write model gain at given angles. Gain is calculated one chunk at a time, so no {@link Field} is
+     * created.
+     * 
+     * @param model
+     *            the model to calculate.
+     * @param thetaPhiList
+     *            the theta and phi angles where model is calculated.
+     * 
+     * @throws IOException
+     *             if records could not be written.
+     */
+    public void write(AntennaModel model, List<ThetaPhi> thetaPhiList) throws IOException {
+        for (ThetaPhi thetaPhi : thetaPhiList) {
+            double theta = thetaPhi.getTheta();
+            double phi = thetaPhi.getPhi();
+            put(theta, phi, model.calculateGain(theta, phi));
+        }
+    }
+
+    /**
+     * Calculate and write model gain on a regular grid with theta from 0 to 180 degrees inclusive and phi from -180
+     * up to but not including 180 degrees. Angles are generated while writing, so neither angles nor values are
+     * materialized.
+     * 
+     * @param model
+     *            the model to calculate.
+     * @param thetaStep
+     *            the theta step in degrees.
+     * @param phiStep
+     *            the phi step in degrees.
+     * 
+     * @throws IOException
+     *             if records could not be written.
+     */
+    public void writeGrid(AntennaModel model, double thetaStep, double phiStep) throws IOException {
+        if (thetaStep <= 0 || phiStep <= 0) {
+            throw new IllegalArgumentException("Steps must be positive");
+        }
+        int thetaCount = (int) Math.floor(180 / thetaStep + 1e-9) + 1;
+        int phiCount = (int) Math.ceil(360 / phiStep - 1e-9);
+        for (int i = 0; i < thetaCount; i++) {
+            double theta = Math.toRadians(i * thetaStep);
+            for (int j = 0; j < phiCount; j++) {
+                double phi = Math.toRadians(-180 + j * phiStep);
+                put(theta, phi, model.calculateGain(theta, phi));
+            }
+        }
+    }
+
+    /**
+     * Write buffered records to file. For {@link FieldExportFormat#NPY} the header is updated so the file is readable
+     * while writing continues.
+     * 
+     * @throws IOException
+     *             if records could not be written.
+     */
+    public void flush() throws IOException {
+        writeBuffer();
+        if (format == FieldExportFormat.NPY) {
+            long position = channel.position();
+            channel.position(0);
+            writeHeader();
+            channel.position(position);
+        }
+    }
+
+    /**
+     * Retrieve number of records in file, including buffered records.
+     * 
+     * @return number of records.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Retrieve file format.
+     * 
+     * @return {@link FieldExportFormat} of file.
+     */
+    public FieldExportFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Write buffered records, update header and close file.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void put(double theta, double phi, double gain) throws IOException {
+        if (buffer.remaining() < RECORD_BYTES) {
+            writeBuffer();
+        }
+        buffer.putDouble(theta).putDouble(phi).putDouble(gain);
+        recordCount++;
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(NPY_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] dictionary = (NPY_DESCRIPTION + recordCount + ",), }").getBytes(StandardCharsets.US_ASCII);
+        int dictionaryBytes = NPY_HEADER_BYTES - NPY_MAGIC.length - Short.BYTES;
+        header.put(NPY_MAGIC).putShort((short) dictionaryBytes).put(dictionary);
+        // Pad with spaces and terminate with newline as required by the format
+        while (header.remaining() > 1) {
+            header.put((byte) ' ');
+        }
+        header.put((byte) '\n');
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+    }
+
+    private static boolean startsWithNpyMagic(FileChannel channel) throws IOException {
+        // Any .npy version is rejected, so the version bytes are not compared
+        ByteBuffer magic = ByteBuffer.allocate(NPY_MAGIC.length - 2);
+        int read = 0;
+        while (magic.hasRemaining() && read >= 0) {
+            read = channel.read(magic, magic.position());
+        }
+        return !magic.hasRemaining() && Arrays.equals(magic.array(), Arrays.copyOf(NPY_MAGIC, NPY_MAGIC.length - 2));
+    }
+
+    private static long readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(NPY_HEADER_BYTES);
+        int read = 0;
+        while (header.hasRemaining() && read >= 0) {
+            read = channel.read(header, header.position());
+        }
+        byte[] bytes = header.array();
+        if (header.hasRemaining() || !Arrays.equals(Arrays.copyOf(bytes, NPY_MAGIC.length), NPY_MAGIC)) {
+            throw new IOException("Not a .npy file written by " + FieldWriter.class.getSimpleName());
+        }
+        String dictionary = new String(bytes, NPY_MAGIC.length + Short.BYTES,
+                NPY_HEADER_BYTES - NPY_MAGIC.length - Short.BYTES, StandardCharsets.US_ASCII);
+        Matcher matcher = NPY_SHAPE_PATTERN.matcher(dictionary);
+        if (!dictionary.startsWith(NPY_DESCRIPTION) || !matcher.find()) {
+            throw new IOException("Unsupported .npy header: " + dictionary.trim());
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+}
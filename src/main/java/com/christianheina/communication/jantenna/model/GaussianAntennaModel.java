@@ -37,6 +37,7 @@ public class GaussianAntennaModel extends AbstractAntennaModel {
     public static final double DEFAULT_HORIZONTAL_HALF_POWER_BEAM_WIDTH = 10;
 
     private static final double SK = -2 * Math.log(2);
+    private static final double GAIN_FACTOR = 20 * SK / Math.log(10);
 
     private GaussianAntennaModel(Builder builder) {
         super(builder);
@@ -44,10 +45,55 @@ public class GaussianAntennaModel extends AbstractAntennaModel {
 
     @Override
     public Complex calculateAngle(ThetaPhi thetaPhi) {
-        double r = Math.exp(SK * Math.pow(Math.toDegrees(thetaPhi.getPhi()) / getHorizontalHalfPowerBeamWidth(), 2))
-                * Math.exp(
-                        SK * Math.pow((Math.toDegrees(thetaPhi.getTheta()) - 90) / getVerticalHalfPowerBeamWidth(), 2));
-        return ComplexUtils.polar2Complex(r, DEFAULT_PHASE);
+        return ComplexUtils.polar2Complex(calculateMagnitude(thetaPhi.getTheta(), thetaPhi.getPhi()), DEFAULT_PHASE);
+    }
+
+    @Override
+    double calculateMagnitude(double theta, double phi) {
+        return Math.exp(SK * Math.pow(Math.toDegrees(phi) / getHorizontalHalfPowerBeamWidth(), 2))
+                * Math.exp(SK * Math.pow((Math.toDegrees(theta) - 90) / getVerticalHalfPowerBeamWidth(), 2));
+    }
+
+    @Override
+    public double calculateGain(double theta, double phi) {
+        return GAIN_FACTOR * (Math.pow(Math.toDegrees(phi) / getHorizontalHalfPowerBeamWidth(), 2)
+                + Math.pow((Math.toDegrees(theta) - 90) / getVerticalHalfPowerBeamWidth(), 2));
+    }
+
+    @Override
+    public AngularRegion calculateThresholdCut(double phi, double gainThreshold) {
+        // Gain in dB is GAIN_FACTOR * (u^2 + v^2) with u and v normalized by HPBW
+        double limit = gainThreshold / GAIN_FACTOR;
+        if (!(limit >= 0)) {
+            return AngularRegion.EMPTY;
+        }
+        double remaining = limit - Math.pow(Math.toDegrees(phi) / getHorizontalHalfPowerBeamWidth(), 2);
+        if (remaining < 0) {
+            return AngularRegion.EMPTY;
+        }
+        double halfWidth = getVerticalHalfPowerBeamWidth() * Math.sqrt(remaining);
+        return new AngularRegion(Math.toRadians(Math.max(0, 90 - halfWidth)),
+                Math.toRadians(Math.min(180, 90 + halfWidth)), phi, phi);
+    }
+
+    @Override
+    public AngularRegion calculateThresholdRegion(double gainThreshold) {
+        AngularRegion cut = calculateThresholdCut(0, gainThreshold);
+        if (cut.isEmpty()) {
+            return AngularRegion.EMPTY;
+        }
+        double halfWidth = Math.toRadians(getHorizontalHalfPowerBeamWidth() * Math.sqrt(gainThreshold / GAIN_FACTOR));
+        return new AngularRegion(cut.getThetaMin(), cut.getThetaMax(), Math.max(-Math.PI, -halfWidth),
+                Math.min(Math.PI, halfWidth));
+    }
+
+    /**
+     * Create {@link Builder} initialized with the parameters of this model.
+     * 
+     * @return new {@link Builder} instance.
+     */
+    public Builder toBuilder() {
+        return new Builder(getVerticalHalfPowerBeamWidth(), getHorizontalHalfPowerBeamWidth());
     }
 
     static Builder newBuilder() {
@@ -65,6 +111,10 @@ public class GaussianAntennaModel extends AbstractAntennaModel {
             super(DEFAULT_VERTICAL_HALF_POWER_BEAM_WIDTH, DEFAULT_HORIZONTAL_HALF_POWER_BEAM_WIDTH);
         }
 
+        private Builder(double verticalHalfPowerBeamWidth, double horizontalHalfPowerBeamWidth) {
+            super(verticalHalfPowerBeamWidth, horizontalHalfPowerBeamWidth);
+        }
+
         /**
          * Build new instance of {@link GaussianAntennaModel} using this instance of
          * {@link GaussianAntennaModel.Builder}.
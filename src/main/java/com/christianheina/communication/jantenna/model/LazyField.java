@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import org.apache.commons.math3.complex.Complex;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.FieldType;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Field view calculating samples on first access. When memoization is enabled calculated samples are kept in primitive
+ * buffers, making calculation cost proportional to the number of distinct samples read. Memoizing instances are not
+ * thread safe.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class LazyField {
+
+    private final AntennaModel model;
+    private final List<ThetaPhi> thetaPhiList;
+    private final boolean memoize;
+    private final double[] real;
+    private final double[] imaginary;
+    private final boolean[] calculated;
+    private final List<Complex> relativeGainList;
+    private int calculatedCount = 0;
+
+    LazyField(AntennaModel model, List<ThetaPhi> thetaPhiList, boolean memoize) {
+        this.model = model;
+        this.thetaPhiList = thetaPhiList;
+        this.memoize = memoize;
+        this.real = memoize ? new double[thetaPhiList.size()] : null;
+        this.imaginary = memoize ? new double[thetaPhiList.size()] : null;
+        this.calculated = memoize ? new boolean[thetaPhiList.size()] : null;
+        this.relativeGainList = new RelativeGainList();
+    }
+
+    /**
+     * Retrieve angles.
+     * 
+     * @return list of {@link ThetaPhi} angles of the field.
+     */
+    public List<ThetaPhi> getThetaPhiList() {
+        return thetaPhiList;
+    }
+
+    /**
+     * Retrieve electric field view. Values are calculated when elements of the returned list are accessed.
+     * 
+     * @param electricField
+     *            the electric field to retrieve.
+     * 
+     * @return list view of values, or null if electric field is not {@link ElectricField#RELATIVE_GAIN}.
+     */
+    public List<Complex> getElectricField(ElectricField electricField) {
+        return electricField == ElectricField.RELATIVE_GAIN ? relativeGainList : null;
+    }
+
+    /**
+     * Retrieve value at angle index.
+     * 
+     * @param index
+     *            the angle index.
+     * 
+     * @return {@link Complex} value at given angle index.
+     */
+    public Complex getValue(int index) {
+        if (!memoize) {
+            return model.calculateAngle(thetaPhiList.get(index));
+        }
+        calculate(index);
+        return new Complex(real[index], imaginary[index]);
+    }
+
+    /**
+     * Retrieve gain at angle index.
+     * 
+     * @param index
+     *            the angle index.
+     * 
+     * @return gain in dB at given angle index.
+     */
+    public double getGain(int index) {
+        if (!memoize) {
+            ThetaPhi thetaPhi = thetaPhiList.get(index);
+            return model.calculateGain(thetaPhi.getTheta(), thetaPhi.getPhi());
+        }
+        calculate(index);
+        return 20 * Math.log10(Math.hypot(real[index], imaginary[index]));
+    }
+
+    /**
+     * Check if memoization is enabled.
+     * 
+     * @return true if calculated samples are kept.
+     */
+    public boolean isMemoized() {
+        return memoize;
+    }
+
+    /**
+     * Retrieve number of kept samples.
+     * 
+     * @return number of samples calculated and kept, always zero when memoization is disabled.
+     */
+    public int getCalculatedCount() {
+        return calculatedCount;
+    }
+
+    /**
+     * Calculate all remaining samples and create {@link Field}.
+     * 
+     * @return new instance of {@link Field} containing all samples.
+     */
+    public Field toField() {
+        List<Complex> fieldDataList = new ArrayList<>(relativeGainList);
+        return Field.newBuilder().setThetaPhiList(thetaPhiList)
+                .addElectricField(ElectricField.RELATIVE_GAIN, fieldDataList).setFieldType(FieldType.FARFIELD).build();
+    }
+
+    private void calculate(int index) {
+        if (calculated[index]) {
+            return;
+        }
+        ThetaPhi thetaPhi = thetaPhiList.get(index);
+        if (model instanceof AbstractAntennaModel) {
+            // Model phase is zero, so only the magnitude is calculated
+            real[index] = ((AbstractAntennaModel) model).calculateMagnitude(thetaPhi.getTheta(), thetaPhi.getPhi());
+            imaginary[index] = 0;
+        } else {
+            Complex value = model.calculateAngle(thetaPhi);
+            real[index] = value.getReal();
+            imaginary[index] = value.getImaginary();
+        }
+        calculated[index] = true;
+        calculatedCount++;
+    }
+
+    private final class RelativeGainList extends AbstractList<Complex> implements RandomAccess {
+
+        @Override
+        public Complex get(int index) {
+            return getValue(index);
+        }
+
+        @Override
+        public int size() {
+            return thetaPhiList.size();
+        }
+
+    }
+
+}
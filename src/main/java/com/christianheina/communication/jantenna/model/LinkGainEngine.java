@@ -0,0 +1,495 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Engine calculating antenna gain from cells to UE positions. UE coordinates are converted to the local theta and phi
+ * angles of each cell in batch, and pairs are culled when beyond the maximum distance or when the gain is below the
+ * minimum gain. {@link NrAntennaModel} and {@link GaussianAntennaModel} cells skip angles outside their exact threshold
+ * region, other models are evaluated for every candidate pair. For {@link NrAntennaModel} the minimum gain of the cell
+ * is raised just above the maximum attenuation floor, so pairs at the floor are always culled, also inside the bounding
+ * box of the threshold region. Distance culling uses a uniform grid over UE positions.
+ * <p>
+ * Cell azimuth is given in degrees counterclockwise from the x-axis and downtilt in degrees below the horizontal plane.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public class LinkGainEngine {
+
+    /**
+     * Default maximum distance, no distance culling.
+     */
+    public static final double DEFAULT_MAXIMUM_DISTANCE = Double.POSITIVE_INFINITY;
+
+    /**
+     * Default minimum gain, no gain culling besides the model attenuation floor.
+     */
+    public static final double DEFAULT_MINIMUM_GAIN = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Default number of strongest cells kept per UE, zero keeps all cells.
+     */
+    public static final int DEFAULT_TOP_K = 0;
+
+    private static final int MINIMUM_GRID_BUCKETS = 1024;
+
+    private final List<Cell> cellList;
+    private final double maximumDistance;
+    private final double minimumGain;
+    private final int topK;
+
+    private LinkGainEngine(Builder builder) {
+        if (!(builder.maximumDistance > 0)) {
+            throw new IllegalArgumentException("Maximum distance must be positive: " + builder.maximumDistance);
+        }
+        if (builder.topK < 0) {
+            throw new IllegalArgumentException("Top-K must not be negative: " + builder.topK);
+        }
+        this.maximumDistance = builder.maximumDistance;
+        this.minimumGain = builder.minimumGain;
+        this.topK = builder.topK;
+        List<Cell> cells = new ArrayList<>(builder.cellList.size());
+        for (Cell cell : builder.cellList) {
+            double threshold = calculateCullingThreshold(cell.model);
+            cells.add(new Cell(cell, calculateCullingRegion(cell.model, threshold), threshold));
+        }
+        this.cellList = Collections.unmodifiableList(cells);
+    }
+
+    private double calculateCullingThreshold(AntennaModel model) {
+        if (model instanceof NrAntennaModel) {
+            NrAntennaModel nrModel = (NrAntennaModel) model;
+            return Math.max(minimumGain, Math.nextUp(nrModel.getMaximumGain() - nrModel.getMaximumAttenuation()));
+        }
+        return minimumGain;
+    }
+
+    private static AngularRegion calculateCullingRegion(AntennaModel model, double threshold) {
+        // Sampled regions of other models may miss narrow lobes, so they are evaluated and filtered instead
+        if (!(model instanceof NrAntennaModel || model instanceof GaussianAntennaModel)) {
+            return AngularRegion.FULL;
+        }
+        if (threshold == Double.NEGATIVE_INFINITY) {
+            return AngularRegion.FULL;
+        }
+        return model.calculateThresholdRegion(threshold);
+    }
+
+    /**
+     * Calculate gain from all cells to given UE positions.
+     * 
+     * @param x
+     *            the UE x coordinates.
+     * @param y
+     *            the UE y coordinates.
+     * @param z
+     *            the UE z coordinates.
+     * 
+     * @return new instance of {@link LinkGainMatrix} containing the non culled pairs. When top-K is set entries are
+     *         grouped per UE in descending gain order, otherwise entries are grouped per cell.
+     */
+    public LinkGainMatrix calculate(double[] x, double[] y, double[] z) {
+        if (x.length != y.length || x.length != z.length) {
+            throw new IllegalArgumentException("UE coordinate arrays must have equal length");
+        }
+        GainCollector collector = topK > 0 ? new TopKCollector(x.length, topK) : new SparseCollector();
+        UeGrid grid = Double.isInfinite(maximumDistance) ? null : new UeGrid(x, y, maximumDistance);
+        double[] thetaPhi = new double[2];
+        for (int i = 0; i < cellList.size(); i++) {
+            Cell cell = cellList.get(i);
+            int cellIndex = i;
+            if (cell.region.isEmpty()) {
+                continue;
+            }
+            if (grid == null) {
+                for (int ueIndex = 0; ueIndex < x.length; ueIndex++) {
+                    calculatePair(cell, cellIndex, ueIndex, x, y, z, thetaPhi, collector);
+                }
+            } else {
+                grid.forEachCandidate(cell.x, cell.y, maximumDistance,
+                        ueIndex -> calculatePair(cell, cellIndex, ueIndex, x, y, z, thetaPhi, collector));
+            }
+        }
+        return collector.toMatrix(cellList.size(), x.length);
+    }
+
+    private void calculatePair(Cell cell, int cellIndex, int ueIndex, double[] x, double[] y, double[] z,
+            double[] thetaPhi, GainCollector collector) {
+        double dx = x[ueIndex] - cell.x;
+        double dy = y[ueIndex] - cell.y;
+        double dz = z[ueIndex] - cell.z;
+        double distanceSquared = dx * dx + dy * dy + dz * dz;
+        if (distanceSquared > maximumDistance * maximumDistance || distanceSquared == 0) {
+            return;
+        }
+        cell.orientation.toThetaPhi(dx, dy, dz, Math.sqrt(distanceSquared), thetaPhi);
+        double theta = thetaPhi[0];
+        double phi = thetaPhi[1];
+        if (!cell.region.contains(theta, phi)) {
+            return;
+        }
+        double gain = cell.model.calculateGain(theta, phi);
+        // Regions are bounding boxes, so the gain is compared to the threshold of the cell as well
+        if (gain >= cell.minimumGain) {
+            collector.add(cellIndex, ueIndex, gain);
+        }
+    }
+
+    /**
+     * Retrieve number of cells.
+     * 
+     * @return number of cells.
+     */
+    public int getCellCount() {
+        return cellList.size();
+    }
+
+    /**
+     * Retrieve maximum distance.
+     * 
+     * @return maximum distance between cell and UE.
+     */
+    public double getMaximumDistance() {
+        return maximumDistance;
+    }
+
+    /**
+     * Retrieve minimum gain.
+     * 
+     * @return minimum gain in dB kept in result.
+     */
+    public double getMinimumGain() {
+        return minimumGain;
+    }
+
+    /**
+     * Retrieve number of strongest cells kept per UE.
+     * 
+     * @return number of cells kept per UE, zero if all cells are kept.
+     */
+    public int getTopK() {
+        return topK;
+    }
+
+    /**
+     * Create instance of {@link LinkGainEngine.Builder}.
+     * 
+     * @return new {@link LinkGainEngine.Builder} instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private static final class Cell {
+
+        private final AntennaModel model;
+        private final double x;
+        private final double y;
+        private final double z;
+        private final AntennaOrientation orientation;
+        private final AngularRegion region;
+        private final double minimumGain;
+
+        private Cell(AntennaModel model, double x, double y, double z, double azimuth, double downtilt) {
+            this.model = model;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.orientation = new AntennaOrientation(azimuth, downtilt);
+            this.region = AngularRegion.FULL;
+            this.minimumGain = Double.NEGATIVE_INFINITY;
+        }
+
+        private Cell(Cell cell, AngularRegion region, double minimumGain) {
+            this.model = cell.model;
+            this.x = cell.x;
+            this.y = cell.y;
+            this.z = cell.z;
+            this.orientation = cell.orientation;
+            this.region = region;
+            this.minimumGain = minimumGain;
+        }
+
+    }
+
+    /**
+     * Uniform grid over UE x and y coordinates stored as bucket offsets into a sorted index array.
+     */
+    private static final class UeGrid {
+
+        private final double bucketSize;
+        private final long minColumn;
+        private final long minRow;
+        private final int columns;
+        private final int rows;
+        private final int[] bucketStart;
+        private final int[] order;
+
+        private UeGrid(double[] x, double[] y, double distance) {
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < x.length; i++) {
+                minX = Math.min(minX, x[i]);
+                minY = Math.min(minY, y[i]);
+                maxX = Math.max(maxX, x[i]);
+                maxY = Math.max(maxY, y[i]);
+            }
+            double size = Math.max(distance, Double.MIN_NORMAL);
+            long maximumBuckets = Math.max(MINIMUM_GRID_BUCKETS, 4L * x.length);
+            if (x.length > 0) {
+                // Coarser buckets when UEs are spread wide, still correct but less selective
+                while ((Math.floor(maxX / size) - Math.floor(minX / size) + 1)
+                        * (Math.floor(maxY / size) - Math.floor(minY / size) + 1) > maximumBuckets) {
+                    size *= 2;
+                }
+            }
+            this.bucketSize = size;
+            this.minColumn = x.length > 0 ? (long) Math.floor(minX / size) : 0;
+            this.minRow = x.length > 0 ? (long) Math.floor(minY / size) : 0;
+            this.columns = x.length > 0 ? (int) ((long) Math.floor(maxX / size) - minColumn + 1) : 0;
+            this.rows = x.length > 0 ? (int) ((long) Math.floor(maxY / size) - minRow + 1) : 0;
+            int[] bucketOf = new int[x.length];
+            this.bucketStart = new int[columns * rows + 1];
+            for (int i = 0; i < x.length; i++) {
+                bucketOf[i] = bucket((long) Math.floor(x[i] / size), (long) Math.floor(y[i] / size));
+                bucketStart[bucketOf[i] + 1]++;
+            }
+            for (int i = 0; i < columns * rows; i++) {
+                bucketStart[i + 1] += bucketStart[i];
+            }
+            int[] fill = Arrays.copyOf(bucketStart, bucketStart.length);
+            this.order = new int[x.length];
+            for (int i = 0; i < x.length; i++) {
+                order[fill[bucketOf[i]]++] = i;
+            }
+        }
+
+        private int bucket(long column, long row) {
+            return (int) ((row - minRow) * columns + (column - minColumn));
+        }
+
+        private void forEachCandidate(double x, double y, double distance, UeConsumer consumer) {
+            long fromColumn = Math.max(minColumn, (long) Math.floor((x - distance) / bucketSize));
+            long toColumn = Math.min(minColumn + columns - 1, (long) Math.floor((x + distance) / bucketSize));
+            long fromRow = Math.max(minRow, (long) Math.floor((y - distance) / bucketSize));
+            long toRow = Math.min(minRow + rows - 1, (long) Math.floor((y + distance) / bucketSize));
+            for (long row = fromRow; row <= toRow; row++) {
+                for (long column = fromColumn; column <= toColumn; column++) {
+                    int bucket = bucket(column, row);
+                    for (int i = bucketStart[bucket]; i < bucketStart[bucket + 1]; i++) {
+                        consumer.accept(order[i]);
+                    }
+                }
+            }
+        }
+
+    }
+
+    @FunctionalInterface
+    private interface UeConsumer {
+        void accept(int ueIndex);
+    }
+
+    private interface GainCollector {
+
+        void add(int cellIndex, int ueIndex, double gain);
+
+        LinkGainMatrix toMatrix(int cellCount, int ueCount);
+
+    }
+
+    private static final class SparseCollector implements GainCollector {
+
+        private int size = 0;
+        private int[] cellIndices = new int[16];
+        private int[] ueIndices = new int[16];
+        private double[] gains = new double[16];
+
+        @Override
+        public void add(int cellIndex, int ueIndex, double gain) {
+            if (size == gains.length) {
+                int capacity = size * 2;
+                cellIndices = Arrays.copyOf(cellIndices, capacity);
+                ueIndices = Arrays.copyOf(ueIndices, capacity);
+                gains = Arrays.copyOf(gains, capacity);
+            }
+            cellIndices[size] = cellIndex;
+            ueIndices[size] = ueIndex;
+            gains[size] = gain;
+            size++;
+        }
+
+        @Override
+        public LinkGainMatrix toMatrix(int cellCount, int ueCount) {
+            return new LinkGainMatrix(cellCount, ueCount, size, cellIndices, ueIndices, gains);
+        }
+
+    }
+
+    private static final class TopKCollector implements GainCollector {
+
+        private final int k;
+        private final int[] counts;
+        private final int[] cellIndices;
+        private final double[] gains;
+
+        private TopKCollector(int ueCount, int k) {
+            this.k = k;
+            this.counts = new int[ueCount];
+            this.cellIndices = new int[ueCount * k];
+            this.gains = new double[ueCount * k];
+        }
+
+        @Override
+        public void add(int cellIndex, int ueIndex, double gain) {
+            int offset = ueIndex * k;
+            int count = counts[ueIndex];
+            if (count == k && gains[offset + k - 1] >= gain) {
+                return;
+            }
+            // Insertion into descending list, dropping weakest entry when full
+            int position = count < k ? count : k - 1;
+            while (position > 0 && gains[offset + position - 1] < gain) {
+                gains[offset + position] = gains[offset + position - 1];
+                cellIndices[offset + position] = cellIndices[offset + position - 1];
+                position--;
+            }
+            gains[offset + position] = gain;
+            cellIndices[offset + position] = cellIndex;
+            if (count < k) {
+                counts[ueIndex]++;
+            }
+        }
+
+        @Override
+        public LinkGainMatrix toMatrix(int cellCount, int ueCount) {
+            int size = 0;
+            for (int count : counts) {
+                size += count;
+            }
+            int[] resultCells = new int[size];
+            int[] resultUes = new int[size];
+            double[] resultGains = new double[size];
+            int index = 0;
+            for (int ue = 0; ue < ueCount; ue++) {
+                for (int i = 0; i < counts[ue]; i++) {
+                    resultCells[index] = cellIndices[ue * k + i];
+                    resultUes[index] = ue;
+                    resultGains[index] = gains[ue * k + i];
+                    index++;
+                }
+            }
+            return new LinkGainMatrix(cellCount, ueCount, size, resultCells, resultUes, resultGains);
+        }
+
+    }
+
+    /**
+     * Builder for {@link LinkGainEngine}.
+     * 
+     * @author Christian Heina (developer@christianheina.com)
+     */
+    public static class Builder {
+
+        private final List<Cell> cellList = new ArrayList<>();
+        private double maximumDistance = DEFAULT_MAXIMUM_DISTANCE;
+        private double minimumGain = DEFAULT_MINIMUM_GAIN;
+        private int topK = DEFAULT_TOP_K;
+
+        private Builder() {
+        }
+
+        /**
+         * Add cell.
+         * 
+         * @param model
+         *            the antenna model of the cell.
+         * @param x
+         *            the cell x coordinate.
+         * @param y
+         *            the cell y coordinate.
+         * @param z
+         *            the cell z coordinate.
+         * @param azimuth
+         *            the cell azimuth in degrees counterclockwise from the x-axis.
+         * @param downtilt
+         *            the cell downtilt in degrees below the horizontal plane.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder addCell(AntennaModel model, double x, double y, double z, double azimuth, double downtilt) {
+            cellList.add(new Cell(model, x, y, z, azimuth, downtilt));
+            return this;
+        }
+
+        /**
+         * Set maximum distance between cell and UE, pairs further apart are culled.
+         * 
+         * @param maximumDistance
+         *            the maximum distance to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setMaximumDistance(double maximumDistance) {
+            this.maximumDistance = maximumDistance;
+            return this;
+        }
+
+        /**
+         * Set minimum gain, pairs with lower gain are culled.
+         * 
+         * @param minimumGain
+         *            the minimum gain in dB to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setMinimumGain(double minimumGain) {
+            this.minimumGain = minimumGain;
+            return this;
+        }
+
+        /**
+         * Set number of strongest cells kept per UE.
+         * 
+         * @param topK
+         *            the number of cells to keep per UE, zero keeps all cells.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setTopK(int topK) {
+            this.topK = topK;
+            return this;
+        }
+
+        /**
+         * Build new instance of {@link LinkGainEngine} using this instance of {@link LinkGainEngine.Builder}.
+         * 
+         * @return new instance of {@link LinkGainEngine}.
+         */
+        public LinkGainEngine build() {
+            return new LinkGainEngine(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+/**
+ * Sparse cell to UE gain matrix produced by {@link LinkGainEngine}. Only pairs that were not culled are stored, each
+ * entry holding cell index, UE index and gain in dB.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class LinkGainMatrix {
+
+    private final int cellCount;
+    private final int ueCount;
+    private final int size;
+    private final int[] cellIndices;
+    private final int[] ueIndices;
+    private final double[] gains;
+
+    LinkGainMatrix(int cellCount, int ueCount, int size, int[] cellIndices, int[] ueIndices, double[] gains) {
+        this.cellCount = cellCount;
+        this.ueCount = ueCount;
+        this.size = size;
+        this.cellIndices = cellIndices;
+        this.ueIndices = ueIndices;
+        this.gains = gains;
+    }
+
+    /**
+     * Retrieve number of stored entries.
+     * 
+     * @return number of stored cell and UE pairs.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieve number of cells.
+     * 
+     * @return number of cells the matrix was calculated for.
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Retrieve number of UEs.
+     * 
+     * @return number of UEs the matrix was calculated for.
+     */
+    public int getUeCount() {
+        return ueCount;
+    }
+
+    /**
+     * Retrieve cell index of entry.
+     * 
+     * @param index
+     *            the entry index.
+     * 
+     * @return cell index of entry.
+     */
+    public int getCellIndex(int index) {
+        checkIndex(index);
+        return cellIndices[index];
+    }
+
+    /**
+     * Retrieve UE index of entry.
+     * 
+     * @param index
+     *            the entry index.
+     * 
+     * @return UE index of entry.
+     */
+    public int getUeIndex(int index) {
+        checkIndex(index);
+        return ueIndices[index];
+    }
+
+    /**
+     * Retrieve gain of entry.
+     * 
+     * @param index
+     *            the entry index.
+     * 
+     * @return gain in dB of entry.
+     */
+    public double getGain(int index) {
+        checkIndex(index);
+        return gains[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+}
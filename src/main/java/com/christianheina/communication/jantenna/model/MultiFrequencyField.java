@@ -0,0 +1,177 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.FieldType;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Antenna model result for several frequencies sharing the same angles. Values are stored in primitive buffers and
+ * converted to {@link Field} per frequency on request.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class MultiFrequencyField {
+
+    private final List<ThetaPhi> thetaPhiList;
+    private final double[] frequencies;
+    private final double[] real;
+    private final double[] imaginary;
+
+    MultiFrequencyField(List<ThetaPhi> thetaPhiList, double[] frequencies, double[] real, double[] imaginary) {
+        this.thetaPhiList = thetaPhiList;
+        this.frequencies = frequencies;
+        this.real = real;
+        this.imaginary = imaginary;
+    }
+
+    /**
+     * Create field from frequency independent values, the same values are used at every frequency.
+     * 
+     * @param thetaPhiList
+     *            the theta and phi angles of the values.
+     * @param frequencies
+     *            the frequencies in Hz of the field.
+     * @param valueList
+     *            the values, one per angle.
+     * 
+     * @return new instance of {@link MultiFrequencyField} containing the values at every frequency.
+     */
+    public static MultiFrequencyField fromValues(List<ThetaPhi> thetaPhiList, double[] frequencies,
+            List<Complex> valueList) {
+        int angleCount = thetaPhiList.size();
+        if (valueList.size() != angleCount) {
+            throw new IllegalArgumentException("Expected " + angleCount + " values but got " + valueList.size());
+        }
+        double[] real = new double[frequencies.length * angleCount];
+        double[] imaginary = new double[frequencies.length * angleCount];
+        for (int i = 0; i < angleCount; i++) {
+            Complex value = valueList.get(i);
+            for (int f = 0; f < frequencies.length; f++) {
+                real[f * angleCount + i] = value.getReal();
+                imaginary[f * angleCount + i] = value.getImaginary();
+            }
+        }
+        return new MultiFrequencyField(thetaPhiList, frequencies.clone(), real, imaginary);
+    }
+
+    /**
+     * Retrieve angles.
+     * 
+     * @return list of {@link ThetaPhi} angles the field was calculated at.
+     */
+    public List<ThetaPhi> getThetaPhiList() {
+        return thetaPhiList;
+    }
+
+    /**
+     * Retrieve frequencies.
+     * 
+     * @return copy of frequencies in Hz the field was calculated at.
+     */
+    public double[] getFrequencies() {
+        return Arrays.copyOf(frequencies, frequencies.length);
+    }
+
+    /**
+     * Retrieve number of frequencies.
+     * 
+     * @return number of frequencies.
+     */
+    public int getFrequencyCount() {
+        return frequencies.length;
+    }
+
+    /**
+     * Retrieve real part of value.
+     * 
+     * @param frequencyIndex
+     *            the frequency index.
+     * @param angleIndex
+     *            the angle index.
+     * 
+     * @return real part of value at given frequency and angle.
+     */
+    public double getReal(int frequencyIndex, int angleIndex) {
+        return real[index(frequencyIndex, angleIndex)];
+    }
+
+    /**
+     * Retrieve imaginary part of value.
+     * 
+     * @param frequencyIndex
+     *            the frequency index.
+     * @param angleIndex
+     *            the angle index.
+     * 
+     * @return imaginary part of value at given frequency and angle.
+     */
+    public double getImaginary(int frequencyIndex, int angleIndex) {
+        return imaginary[index(frequencyIndex, angleIndex)];
+    }
+
+    /**
+     * Retrieve gain.
+     * 
+     * @param frequencyIndex
+     *            the frequency index.
+     * @param angleIndex
+     *            the angle index.
+     * 
+     * @return gain in dB at given frequency and angle.
+     */
+    public double getGain(int frequencyIndex, int angleIndex) {
+        int index = index(frequencyIndex, angleIndex);
+        return 20 * Math.log10(Math.hypot(real[index], imaginary[index]));
+    }
+
+    /**
+     * Create {@link Field} for single frequency.
+     * 
+     * @param frequencyIndex
+     *            the frequency index.
+     * 
+     * @return new instance of {@link Field} containing the values at given frequency.
+     */
+    public Field getField(int frequencyIndex) {
+        List<Complex> fieldDataList = new ArrayList<>(thetaPhiList.size());
+        for (int i = 0; i < thetaPhiList.size(); i++) {
+            int index = index(frequencyIndex, i);
+            fieldDataList.add(new Complex(real[index], imaginary[index]));
+        }
+        return Field.newBuilder().setThetaPhiList(thetaPhiList)
+                .addElectricField(ElectricField.RELATIVE_GAIN, fieldDataList).setFieldType(FieldType.FARFIELD).build();
+    }
+
+    private int index(int frequencyIndex, int angleIndex) {
+        if (frequencyIndex < 0 || frequencyIndex >= frequencies.length) {
+            throw new IndexOutOfBoundsException("Frequency index: " + frequencyIndex + ", Size: " + frequencies.length);
+        }
+        if (angleIndex < 0 || angleIndex >= thetaPhiList.size()) {
+            throw new IndexOutOfBoundsException("Angle index: " + angleIndex + ", Size: " + thetaPhiList.size());
+        }
+        return frequencyIndex * thetaPhiList.size() + angleIndex;
+    }
+
+}
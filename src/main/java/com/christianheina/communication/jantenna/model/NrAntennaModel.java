@@ -80,15 +80,62 @@ public class NrAntennaModel extends AbstractAntennaModel {
 
     @Override
     public Complex calculateAngle(ThetaPhi thetaPhi) {
-        double at = calculateA(Math.toDegrees(thetaPhi.getTheta()) - 90, getVerticalHalfPowerBeamWidth(),
+        return ComplexUtils.polar2Complex(calculateMagnitude(thetaPhi.getTheta(), thetaPhi.getPhi()), DEFAULT_PHASE);
+    }
+
+    @Override
+    double calculateMagnitude(double theta, double phi) {
+        return Math.pow(10, calculateGain(theta, phi) / 20);
+    }
+
+    @Override
+    public double calculateGain(double theta, double phi) {
+        double at = calculateA(Math.toDegrees(theta) - 90, getVerticalHalfPowerBeamWidth(),
                 verticalSidelobeAttenuation);
-        double ap = calculateA(Math.toDegrees(thetaPhi.getPhi()), getHorizontalHalfPowerBeamWidth(),
-                maximumAttenuation);
-        double r = Math.pow(10, (maximumGain + compareReturnLow(-1 * (at + ap), maximumAttenuation)) / 20);
-        return ComplexUtils.polar2Complex(r, DEFAULT_PHASE);
+        double ap = calculateA(Math.toDegrees(phi), getHorizontalHalfPowerBeamWidth(), maximumAttenuation);
+        return maximumGain + compareReturnLow(-1 * (at + ap), maximumAttenuation);
+    }
+
+    @Override
+    public AngularRegion calculateThresholdCut(double phi, double gainThreshold) {
+        // Allowed total attenuation, gain is maximumGain - min(min(12u^2, SLA) + min(12v^2, Am), Am)
+        double limit = maximumGain - gainThreshold;
+        if (!(limit >= 0)) {
+            return AngularRegion.EMPTY;
+        }
+        if (limit >= maximumAttenuation) {
+            return new AngularRegion(0, Math.PI, phi, phi);
+        }
+        double remaining = limit
+                + calculateA(Math.toDegrees(phi), getHorizontalHalfPowerBeamWidth(), maximumAttenuation);
+        if (remaining < 0) {
+            return AngularRegion.EMPTY;
+        }
+        if (remaining >= verticalSidelobeAttenuation) {
+            return new AngularRegion(0, Math.PI, phi, phi);
+        }
+        double halfWidth = getVerticalHalfPowerBeamWidth() * Math.sqrt(remaining / 12);
+        return new AngularRegion(Math.toRadians(Math.max(0, 90 - halfWidth)),
+                Math.toRadians(Math.min(180, 90 + halfWidth)), phi, phi);
+    }
+
+    @Override
+    public AngularRegion calculateThresholdRegion(double gainThreshold) {
+        double limit = maximumGain - gainThreshold;
+        if (!(limit >= 0)) {
+            return AngularRegion.EMPTY;
+        }
+        if (limit >= maximumAttenuation) {
+            return AngularRegion.FULL;
+        }
+        // Widest theta range is found at phi = 0 where horizontal attenuation is zero
+        AngularRegion cut = calculateThresholdCut(0, gainThreshold);
+        double halfWidth = Math.toRadians(getHorizontalHalfPowerBeamWidth() * Math.sqrt(limit / 12));
+        return new AngularRegion(cut.getThetaMin(), cut.getThetaMax(), Math.max(-Math.PI, -halfWidth),
+                Math.min(Math.PI, halfWidth));
     }
 
-    private static double calculateA(double angle, double hpbw, double def) {
+    static double calculateA(double angle, double hpbw, double def) {
         double a = 12 * Math.pow(angle / hpbw, 2);
         return compareReturnLow(a, def);
     }
@@ -146,6 +193,75 @@ public class NrAntennaModel extends AbstractAntennaModel {
         return polarizationModel;
     }
 
+    /**
+     * Create {@link Builder} initialized with the parameters of this model.
+     * 
+     * @return new {@link Builder} instance.
+     */
+    public Builder toBuilder() {
+        return new Builder(this);
+    }
+
+    /**
+     * Derive model with different maximum gain.
+     * 
+     * @param maximumGain
+     *            the maximum gain of the derived model.
+     * 
+     * @return new instance of {@link NrAntennaModel}.
+     */
+    public NrAntennaModel withMaximumGain(double maximumGain) {
+        return toBuilder().setMaximumGain(maximumGain).build();
+    }
+
+    /**
+     * Derive model with different vertical half power beam width (HPBW).
+     * 
+     * @param verticalHalfPowerBeamWidth
+     *            the vertical half power beam width of the derived model.
+     * 
+     * @return new instance of {@link NrAntennaModel}.
+     */
+    public NrAntennaModel withVerticalHalfPowerBeamWidth(double verticalHalfPowerBeamWidth) {
+        return toBuilder().setVerticalHalfPowerBeamWidth(verticalHalfPowerBeamWidth).build();
+    }
+
+    /**
+     * Derive model with different horizontal half power beam width (HPBW).
+     * 
+     * @param horizontalHalfPowerBeamWidth
+     *            the horizontal half power beam width of the derived model.
+     * 
+     * @return new instance of {@link NrAntennaModel}.
+     */
+    public NrAntennaModel withHorizontalHalfPowerBeamWidth(double horizontalHalfPowerBeamWidth) {
+        return toBuilder().setHorizontalHalfPowerBeamWidth(horizontalHalfPowerBeamWidth).build();
+    }
+
+    /**
+     * Derive model with different side-lobe attenuation in vertical direction (SLA).
+     * 
+     * @param verticalSidelobeAttenuation
+     *            the side-lobe attenuation of the derived model.
+     * 
+     * @return new instance of {@link NrAntennaModel}.
+     */
+    public NrAntennaModel withVerticalSidelobeAttenuation(double verticalSidelobeAttenuation) {
+        return toBuilder().setVerticalSidelobeAttenuation(verticalSidelobeAttenuation).build();
+    }
+
+    /**
+     * Derive model with different maximum attenuation.
+     * 
+     * @param maximumAttenuation
+     *            the maximum attenuation of the derived model.
+     * 
+     * @return new instance of {@link NrAntennaModel}.
+     */
+    public NrAntennaModel withMaximumAttenuation(double maximumAttenuation) {
+        return toBuilder().setMaximumAttenuation(maximumAttenuation).build();
+    }
+
     static Builder newBuilder() {
         return new Builder();
     }
@@ -167,6 +283,15 @@ public class NrAntennaModel extends AbstractAntennaModel {
             super(DEFAULT_VERTICAL_HALF_POWER_BEAM_WIDTH, DEFAULT_HORIZONTAL_HALF_POWER_BEAM_WIDTH);
         }
 
+        private Builder(NrAntennaModel model) {
+            super(model.getVerticalHalfPowerBeamWidth(), model.getHorizontalHalfPowerBeamWidth());
+            this.verticalSidelobeAttenuation = model.verticalSidelobeAttenuation;
+            this.maximumGain = model.maximumGain;
+            this.polarizationSlantAngle = model.polarizationSlantAngle;
+            this.maximumAttenuation = model.maximumAttenuation;
+            this.polarizationModel = model.polarizationModel;
+        }
+
         /**
          * Set side-lobe attenuation in vertical direction (SLA).
          * 
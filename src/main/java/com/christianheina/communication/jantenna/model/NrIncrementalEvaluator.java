@@ -0,0 +1,190 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.complex.ComplexUtils;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.FieldType;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Incremental evaluator of {@link NrAntennaModel} over a fixed list of angles. Vertical and horizontal attenuation
+ * terms are cached per distinct theta and phi, and only the terms invalidated by a parameter change are recalculated:
+ * maximum gain is a pure offset, vertical HPBW and SLA only affect the vertical term, horizontal HPBW and maximum
+ * attenuation only affect the horizontal term. Linear magnitudes of the combined attenuation are cached as well, so a
+ * maximum gain change only scales them by a single factor. Instances are not thread safe.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class NrIncrementalEvaluator {
+
+    private final List<ThetaPhi> thetaPhiList;
+    private final int[] thetaIndex;
+    private final int[] phiIndex;
+    private final double[] thetaValues;
+    private final double[] phiValues;
+    private final double[] verticalAttenuation;
+    private final double[] horizontalAttenuation;
+    private final double[] attenuation;
+    private final double[] attenuationMagnitude;
+    private NrAntennaModel previousModel;
+    private long verticalCount;
+    private long horizontalCount;
+    private long combinedCount;
+
+    /**
+     * Create evaluator for given angles.
+     * 
+     * @param thetaPhiList
+     *            the theta and phi angles where models are calculated.
+     */
+    public NrIncrementalEvaluator(List<ThetaPhi> thetaPhiList) {
+        this.thetaPhiList = thetaPhiList;
+        this.thetaIndex = new int[thetaPhiList.size()];
+        this.phiIndex = new int[thetaPhiList.size()];
+        Map<Double, Integer> thetaMap = new HashMap<>();
+        Map<Double, Integer> phiMap = new HashMap<>();
+        for (int i = 0; i < thetaPhiList.size(); i++) {
+            ThetaPhi thetaPhi = thetaPhiList.get(i);
+            thetaIndex[i] = indexOf(thetaMap, thetaPhi.getTheta());
+            phiIndex[i] = indexOf(phiMap, thetaPhi.getPhi());
+        }
+        this.thetaValues = toArray(thetaMap);
+        this.phiValues = toArray(phiMap);
+        this.verticalAttenuation = new double[thetaValues.length];
+        this.horizontalAttenuation = new double[phiValues.length];
+        this.attenuation = new double[thetaPhiList.size()];
+        this.attenuationMagnitude = new double[thetaPhiList.size()];
+    }
+
+    private static int indexOf(Map<Double, Integer> map, double value) {
+        Integer index = map.get(value);
+        if (index == null) {
+            index = map.size();
+            map.put(value, index);
+        }
+        return index;
+    }
+
+    private static double[] toArray(Map<Double, Integer> map) {
+        double[] values = new double[map.size()];
+        for (Map.Entry<Double, Integer> entry : map.entrySet()) {
+            values[entry.getValue()] = entry.getKey();
+        }
+        return values;
+    }
+
+    /**
+     * Calculate model, reusing cached terms from the previous evaluation where the parameters are unchanged.
+     * 
+     * @param model
+     *            the model to calculate.
+     * 
+     * @return new instance of {@link Field} containing the model.
+     */
+    public Field evaluate(NrAntennaModel model) {
+        update(model);
+        double maximumMagnitude = Math.pow(10, model.getMaximumGain() / 20);
+        List<Complex> fieldDataList = new ArrayList<>(attenuation.length);
+        for (int i = 0; i < attenuation.length; i++) {
+            fieldDataList.add(ComplexUtils.polar2Complex(maximumMagnitude * attenuationMagnitude[i],
+                    AbstractAntennaModel.DEFAULT_PHASE));
+        }
+        return Field.newBuilder().setThetaPhiList(thetaPhiList)
+                .addElectricField(ElectricField.RELATIVE_GAIN, fieldDataList).setFieldType(FieldType.FARFIELD).build();
+    }
+
+    /**
+     * Calculate model gain, reusing cached terms from the previous evaluation where the parameters are unchanged.
+     * 
+     * @param model
+     *            the model to calculate.
+     * 
+     * @return new array with gain in dB per angle.
+     */
+    public double[] evaluateGain(NrAntennaModel model) {
+        update(model);
+        double[] gain = new double[attenuation.length];
+        for (int i = 0; i < attenuation.length; i++) {
+            gain[i] = model.getMaximumGain() - attenuation[i];
+        }
+        return gain;
+    }
+
+    private void update(NrAntennaModel model) {
+        NrAntennaModel previous = previousModel;
+        boolean verticalChanged = previous == null
+                || previous.getVerticalHalfPowerBeamWidth() != model.getVerticalHalfPowerBeamWidth()
+                || previous.getVerticalSidelobeAttenuation() != model.getVerticalSidelobeAttenuation();
+        boolean horizontalChanged = previous == null
+                || previous.getHorizontalHalfPowerBeamWidth() != model.getHorizontalHalfPowerBeamWidth()
+                || previous.getMaximumAttenuation() != model.getMaximumAttenuation();
+        if (verticalChanged) {
+            verticalCount += thetaValues.length;
+            for (int i = 0; i < thetaValues.length; i++) {
+                verticalAttenuation[i] = -NrAntennaModel.calculateA(Math.toDegrees(thetaValues[i]) - 90,
+                        model.getVerticalHalfPowerBeamWidth(), model.getVerticalSidelobeAttenuation());
+            }
+        }
+        if (horizontalChanged) {
+            horizontalCount += phiValues.length;
+            for (int i = 0; i < phiValues.length; i++) {
+                horizontalAttenuation[i] = -NrAntennaModel.calculateA(Math.toDegrees(phiValues[i]),
+                        model.getHorizontalHalfPowerBeamWidth(), model.getMaximumAttenuation());
+            }
+        }
+        if (verticalChanged || horizontalChanged) {
+            double maximumAttenuation = model.getMaximumAttenuation();
+            combinedCount += attenuation.length;
+            for (int i = 0; i < attenuation.length; i++) {
+                attenuation[i] = Math.min(verticalAttenuation[thetaIndex[i]] + horizontalAttenuation[phiIndex[i]],
+                        maximumAttenuation);
+                attenuationMagnitude[i] = Math.pow(10, -attenuation[i] / 20);
+            }
+        }
+        previousModel = model;
+    }
+
+    long getVerticalCount() {
+        return verticalCount;
+    }
+
+    long getHorizontalCount() {
+        return horizontalCount;
+    }
+
+    long getCombinedCount() {
+        return combinedCount;
+    }
+
+    /**
+     * Retrieve angles.
+     * 
+     * @return list of {@link ThetaPhi} angles models are calculated at.
+     */
+    public List<ThetaPhi> getThetaPhiList() {
+        return thetaPhiList;
+    }
+
+}
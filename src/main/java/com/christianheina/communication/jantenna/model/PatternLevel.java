@@ -0,0 +1,159 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.complex.ComplexUtils;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.FieldType;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Single resolution level of {@link PatternPyramid}. Gain in dB is stored on a regular grid with theta from 0 to 180
+ * degrees inclusive and phi from -180 up to but not including 180 degrees, theta major.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class PatternLevel {
+
+    private final double step;
+    private final int thetaCount;
+    private final int phiCount;
+    private final double[] gains;
+
+    PatternLevel(double step, int thetaCount, int phiCount, double[] gains) {
+        this.step = step;
+        this.thetaCount = thetaCount;
+        this.phiCount = phiCount;
+        this.gains = gains;
+    }
+
+    /**
+     * Retrieve step.
+     * 
+     * @return theta and phi step in degrees.
+     */
+    public double getStep() {
+        return step;
+    }
+
+    /**
+     * Retrieve number of theta samples.
+     * 
+     * @return number of theta samples.
+     */
+    public int getThetaCount() {
+        return thetaCount;
+    }
+
+    /**
+     * Retrieve number of phi samples.
+     * 
+     * @return number of phi samples.
+     */
+    public int getPhiCount() {
+        return phiCount;
+    }
+
+    /**
+     * Retrieve number of samples.
+     * 
+     * @return number of samples.
+     */
+    public int size() {
+        return thetaCount * phiCount;
+    }
+
+    /**
+     * Retrieve gain of sample.
+     * 
+     * @param thetaIndex
+     *            the theta index.
+     * @param phiIndex
+     *            the phi index.
+     * 
+     * @return gain in dB of sample.
+     */
+    public double getGain(int thetaIndex, int phiIndex) {
+        if (thetaIndex < 0 || thetaIndex >= thetaCount || phiIndex < 0 || phiIndex >= phiCount) {
+            throw new IndexOutOfBoundsException("Sample: " + thetaIndex + ", " + phiIndex);
+        }
+        return gains[thetaIndex * phiCount + phiIndex];
+    }
+
+    /**
+     * Retrieve gain of sample nearest to angle.
+     * 
+     * @param theta
+     *            the theta angle in radians.
+     * @param phi
+     *            the phi angle in radians.
+     * 
+     * @return gain in dB of nearest sample.
+     */
+    public double getGain(double theta, double phi) {
+        int thetaIndex = (int) Math.round(Math.toDegrees(theta) / step);
+        thetaIndex = Math.max(0, Math.min(thetaCount - 1, thetaIndex));
+        int phiIndex = (int) Math.round((Math.toDegrees(phi) + 180) / step) % phiCount;
+        if (phiIndex < 0) {
+            phiIndex += phiCount;
+        }
+        return gains[thetaIndex * phiCount + phiIndex];
+    }
+
+    /**
+     * Retrieve angles.
+     * 
+     * @return new list of {@link ThetaPhi} angles of samples.
+     */
+    public List<ThetaPhi> getThetaPhiList() {
+        return createThetaPhiList(step, thetaCount, phiCount);
+    }
+
+    /**
+     * Create {@link Field} of level.
+     * 
+     * @return new instance of {@link Field} containing the samples.
+     */
+    public Field toField() {
+        List<Complex> fieldDataList = new ArrayList<>(gains.length);
+        for (double gain : gains) {
+            fieldDataList.add(ComplexUtils.polar2Complex(Math.pow(10, gain / 20), AbstractAntennaModel.DEFAULT_PHASE));
+        }
+        return Field.newBuilder().setThetaPhiList(getThetaPhiList())
+                .addElectricField(ElectricField.RELATIVE_GAIN, fieldDataList).setFieldType(FieldType.FARFIELD).build();
+    }
+
+    double[] getGains() {
+        return gains;
+    }
+
+    static List<ThetaPhi> createThetaPhiList(double step, int thetaCount, int phiCount) {
+        List<ThetaPhi> thetaPhiList = new ArrayList<>(thetaCount * phiCount);
+        for (int i = 0; i < thetaCount; i++) {
+            for (int j = 0; j < phiCount; j++) {
+                thetaPhiList.add(ThetaPhi.fromDegrees(i * step, -180 + j * step));
+            }
+        }
+        return thetaPhiList;
+    }
+
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.model.enums.DownsamplingMode;
+
+/**
+ * Multi-resolution pattern built from a single model evaluation on a fine regular grid. Each coarser level is derived
+ * from the previous one by downsampling, reducing the number of theta intervals and phi samples by their smallest
+ * common prime factor, until fewer than two theta intervals would remain. For a 1 degree grid this gives steps of 1, 2,
+ * 4, 12 and 36 degrees. Queries select the coarsest level whose sampling meets the requested angular accuracy.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class PatternPyramid {
+
+    /**
+     * Default step in degrees of the finest level.
+     */
+    public static final double DEFAULT_STEP = 1;
+
+    private static final int MINIMUM_THETA_INTERVALS = 2;
+
+    private final DownsamplingMode downsamplingMode;
+    private final List<PatternLevel> levelList;
+
+    private PatternPyramid(Builder builder) {
+        double step = builder.step;
+        double thetaIntervals = 180 / step;
+        if (!(step > 0) || Math.abs(thetaIntervals - Math.round(thetaIntervals)) > 1e-9) {
+            throw new IllegalArgumentException("Step must divide 180 degrees: " + step);
+        }
+        int thetaCount = (int) Math.round(thetaIntervals) + 1;
+        int phiCount = 2 * (thetaCount - 1);
+        List<Complex> valueList = builder.model
+                .calculateField(PatternLevel.createThetaPhiList(step, thetaCount, phiCount))
+                .getElectricField(ElectricField.RELATIVE_GAIN);
+        double[] gains = new double[valueList.size()];
+        for (int i = 0; i < gains.length; i++) {
+            gains[i] = 20 * Math.log10(valueList.get(i).abs());
+        }
+        this.downsamplingMode = builder.downsamplingMode;
+        List<PatternLevel> levels = new ArrayList<>();
+        PatternLevel level = new PatternLevel(step, thetaCount, phiCount, gains);
+        levels.add(level);
+        int factor = commonFactor(level.getThetaCount() - 1, level.getPhiCount());
+        while (factor > 0 && (level.getThetaCount() - 1) / factor >= MINIMUM_THETA_INTERVALS) {
+            level = downsample(level, factor, downsamplingMode);
+            levels.add(level);
+            factor = commonFactor(level.getThetaCount() - 1, level.getPhiCount());
+        }
+        this.levelList = Collections.unmodifiableList(levels);
+    }
+
+    private static int commonFactor(int a, int b) {
+        for (int factor = 2; factor <= Math.min(a, b); factor++) {
+            if (a % factor == 0 && b % factor == 0) {
+                return factor;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Coarse sample i is taken from the window of fine samples strictly between the neighbouring coarse samples, fine
+     * indices factor * i - (factor - 1) to factor * i + (factor - 1), wrapping in phi and clamped in theta.
+     */
+    private static PatternLevel downsample(PatternLevel fine, int factor, DownsamplingMode mode) {
+        int thetaCount = (fine.getThetaCount() - 1) / factor + 1;
+        int phiCount = fine.getPhiCount() / factor;
+        double[] fineGains = fine.getGains();
+        double[] gains = new double[thetaCount * phiCount];
+        for (int i = 0; i < thetaCount; i++) {
+            for (int j = 0; j < phiCount; j++) {
+                double maximum = Double.NEGATIVE_INFINITY;
+                double power = 0;
+                double weightSum = 0;
+                for (int di = 1 - factor; di < factor; di++) {
+                    int fineTheta = factor * i + di;
+                    if (fineTheta < 0 || fineTheta >= fine.getThetaCount()) {
+                        continue;
+                    }
+                    for (int dj = 1 - factor; dj < factor; dj++) {
+                        int finePhi = Math.floorMod(factor * j + dj, fine.getPhiCount());
+                        double gain = fineGains[fineTheta * fine.getPhiCount() + finePhi];
+                        if (mode == DownsamplingMode.MAX) {
+                            maximum = Math.max(maximum, gain);
+                        } else {
+                            double weight = (factor - Math.abs(di)) * (factor - Math.abs(dj));
+                            power += weight * Math.pow(10, gain / 10);
+                            weightSum += weight;
+                        }
+                    }
+                }
+                gains[i * phiCount + j] = mode == DownsamplingMode.MAX ? maximum : 10 * Math.log10(power / weightSum);
+            }
+        }
+        return new PatternLevel(fine.getStep() * factor, thetaCount, phiCount, gains);
+    }
+
+    /**
+     * Retrieve number of levels.
+     * 
+     * @return number of levels.
+     */
+    public int getLevelCount() {
+        return levelList.size();
+    }
+
+    /**
+     * Retrieve level.
+     * 
+     * @param index
+     *            the level index, 0 being the finest level.
+     * 
+     * @return {@link PatternLevel} at given index.
+     */
+    public PatternLevel getLevel(int index) {
+        return levelList.get(index);
+    }
+
+    /**
+     * Select coarsest level meeting accuracy. Accuracy is the largest theta or phi distance from any angle to its
+     * nearest sample, half the level step.
+     * 
+     * @param accuracy
+     *            the required accuracy in degrees.
+     * 
+     * @return coarsest {@link PatternLevel} meeting accuracy, or the finest level if none does.
+     */
+    public PatternLevel selectLevel(double accuracy) {
+        for (int i = levelList.size() - 1; i > 0; i--) {
+            if (levelList.get(i).getStep() / 2 <= accuracy) {
+                return levelList.get(i);
+            }
+        }
+        return levelList.get(0);
+    }
+
+    /**
+     * Retrieve gain of nearest sample on coarsest level meeting accuracy.
+     * 
+     * @param theta
+     *            the theta angle in radians.
+     * @param phi
+     *            the phi angle in radians.
+     * @param accuracy
+     *            the required accuracy in degrees.
+     * 
+     * @return gain in dB.
+     */
+    public double getGain(double theta, double phi, double accuracy) {
+        return selectLevel(accuracy).getGain(theta, phi);
+    }
+
+    /**
+     * Retrieve downsampling mode.
+     * 
+     * @return {@link DownsamplingMode} used for coarser levels.
+     */
+    public DownsamplingMode getDownsamplingMode() {
+        return downsamplingMode;
+    }
+
+    /**
+     * Create instance of {@link PatternPyramid.Builder}.
+     * 
+     * @return new {@link PatternPyramid.Builder} instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link PatternPyramid}.
+     * 
+     * @author Christian Heina (developer@christianheina.com)
+     */
+    public static class Builder {
+
+        private AntennaModel model;
+        private double step = DEFAULT_STEP;
+        private DownsamplingMode downsamplingMode = DownsamplingMode.MAX;
+
+        private Builder() {
+        }
+
+        /**
+         * Set model to evaluate on the finest level.
+         * 
+         * @param model
+         *            the model to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setModel(AntennaModel model) {
+            this.model = model;
+            return this;
+        }
+
+        /**
+         * Set step of finest level.
+         * 
+         * @param step
+         *            the theta and phi step in degrees to set, must divide 180.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setStep(double step) {
+            this.step = step;
+            return this;
+        }
+
+        /**
+         * Set downsampling mode.
+         * 
+         * @param downsamplingMode
+         *            the downsampling mode to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setDownsamplingMode(DownsamplingMode downsamplingMode) {
+            this.downsamplingMode = downsamplingMode;
+            return this;
+        }
+
+        /**
+         * Build new instance of {@link PatternPyramid} using this instance of {@link PatternPyramid.Builder}.
+         * 
+         * @return new instance of {@link PatternPyramid}.
+         */
+        public PatternPyramid build() {
+            return new PatternPyramid(this);
+        }
+
+    }
+
+}
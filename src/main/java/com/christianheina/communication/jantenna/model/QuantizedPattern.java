@@ -0,0 +1,503 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.nio.BufferUnderflowException;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.complex.ComplexUtils;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.FieldType;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+import com.christianheina.communication.jantenna.model.enums.QuantizationBits;
+
+/**
+ * Compressed pattern holding gain in dB as 8 or 16 bit codes with a per-pattern scale and offset, gain being
+ * offset + scale * code. Codes are kept uncoded in memory so every sample decodes in O(1). The optional delta coding
+ * along phi is applied to the serialized form only, storing differences as variable length integers so slowly varying
+ * cuts take about one byte per sample, which mainly shrinks 16 bit patterns. Phase is not kept, matching the zero
+ * phase of {@link GaussianAntennaModel} and {@link NrAntennaModel}.
+ * <p>
+ * The maximum quantization error is half the scale. With 8 bit codes a 0.1 dB error is only met for gain ranges up to
+ * 51 dB, so the gain floor should be set accordingly or 16 bit codes used.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public final class QuantizedPattern {
+
+    /**
+     * Default gain floor in dB. Gain below the floor is stored as the floor.
+     */
+    public static final double DEFAULT_MINIMUM_GAIN = -100;
+
+    private static final int MAGIC = 0x4A415150;
+    private static final byte DELTA_FLAG = 1;
+    private static final byte GRID_FLAG = 2;
+
+    private final List<ThetaPhi> thetaPhiList;
+    private final QuantizationBits bits;
+    private final double offset;
+    private final double scale;
+    private final boolean deltaCoding;
+    private final byte[] codes;
+
+    private QuantizedPattern(List<ThetaPhi> thetaPhiList, QuantizationBits bits, double offset, double scale,
+            boolean deltaCoding, byte[] codes) {
+        this.thetaPhiList = thetaPhiList;
+        this.bits = bits;
+        this.offset = offset;
+        this.scale = scale;
+        this.deltaCoding = deltaCoding;
+        this.codes = codes;
+    }
+
+    private QuantizedPattern(Builder builder) {
+        List<Complex> valueList = builder.field.getElectricField(ElectricField.RELATIVE_GAIN);
+        int size = valueList.size();
+        double[] gain = new double[size];
+        double minimum = Double.POSITIVE_INFINITY;
+        double maximum = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            gain[i] = Math.max(20 * Math.log10(valueList.get(i).abs()), builder.minimumGain);
+            minimum = Math.min(minimum, gain[i]);
+            maximum = Math.max(maximum, gain[i]);
+        }
+        if (size == 0) {
+            minimum = 0;
+            maximum = 0;
+        }
+        this.thetaPhiList = builder.field.getThetaPhiList();
+        this.bits = builder.bits;
+        this.offset = minimum;
+        this.scale = maximum > minimum ? (maximum - minimum) / (bits.getLevels() - 1) : 1;
+        this.deltaCoding = builder.deltaCoding;
+        int codeBytes = bits.getBits() / Byte.SIZE;
+        this.codes = new byte[size * codeBytes];
+        for (int i = 0; i < size; i++) {
+            int code = (int) Math.min(Math.round((gain[i] - offset) / scale), bits.getLevels() - 1);
+            putCode(codes, bits, i, code);
+        }
+    }
+
+    /**
+     * Retrieve angles.
+     * 
+     * @return list of {@link ThetaPhi} angles of the pattern.
+     */
+    public List<ThetaPhi> getThetaPhiList() {
+        return thetaPhiList;
+    }
+
+    /**
+     * Retrieve number of samples.
+     * 
+     * @return number of samples.
+     */
+    public int size() {
+        return thetaPhiList.size();
+    }
+
+    /**
+     * Retrieve code at angle index.
+     * 
+     * @param index
+     *            the angle index.
+     * 
+     * @return quantization code at given angle index.
+     */
+    public int getCode(int index) {
+        return getCode(codes, bits, index);
+    }
+
+    /**
+     * Retrieve gain at angle index.
+     * 
+     * @param index
+     *            the angle index.
+     * 
+     * @return decoded gain in dB at given angle index.
+     */
+    public double getGain(int index) {
+        return offset + scale * getCode(codes, bits, index);
+    }
+
+    /**
+     * Retrieve value at angle index.
+     * 
+     * @param index
+     *            the angle index.
+     * 
+     * @return decoded {@link Complex} value at given angle index.
+     */
+    public Complex getValue(int index) {
+        return ComplexUtils.polar2Complex(Math.pow(10, getGain(index) / 20), AbstractAntennaModel.DEFAULT_PHASE);
+    }
+
+    /**
+     * Retrieve code width.
+     * 
+     * @return {@link QuantizationBits} of codes.
+     */
+    public QuantizationBits getBits() {
+        return bits;
+    }
+
+    /**
+     * Retrieve offset.
+     * 
+     * @return gain in dB of code zero.
+     */
+    public double getOffset() {
+        return offset;
+    }
+
+    /**
+     * Retrieve scale.
+     * 
+     * @return gain step in dB between adjacent codes.
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Retrieve maximum quantization error for gain above the floor.
+     * 
+     * @return maximum error in dB.
+     */
+    public double getMaximumError() {
+        return scale / 2;
+    }
+
+    /**
+     * Check if serialized form is delta coded along phi.
+     * 
+     * @return true if delta coding is enabled.
+     */
+    public boolean isDeltaCoded() {
+        return deltaCoding;
+    }
+
+    /**
+     * Decode pattern into {@link Field}.
+     * 
+     * @return new instance of {@link Field} containing decoded values.
+     */
+    public Field toField() {
+        List<Complex> fieldDataList = new ArrayList<>(size());
+        for (int i = 0; i < size(); i++) {
+            fieldDataList.add(getValue(i));
+        }
+        return Field.newBuilder().setThetaPhiList(thetaPhiList)
+                .addElectricField(ElectricField.RELATIVE_GAIN, fieldDataList).setFieldType(FieldType.FARFIELD).build();
+    }
+
+    /**
+     * Serialize pattern. Angles on a theta major grid are stored as one theta per row and one phi per column, other
+     * angle lists as one pair per sample. Codes are stored at fixed width, or with delta coding as zig-zag encoded
+     * variable length integers of 7 bits per byte, each code except the first of every theta row being the difference
+     * to the previous code.
+     * 
+     * @return serialized pattern.
+     */
+    public byte[] toByteArray() {
+        int size = size();
+        int columns = gridColumns(thetaPhiList);
+        int rows = columns > 0 ? size / columns : 0;
+        int angleBytes = columns > 0 ? (rows + columns) * Double.BYTES : size * 2 * Double.BYTES;
+        byte[] serializedCodes = deltaCoding ? encodeDeltas() : codes;
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES + 2 + 2 * Double.BYTES + Integer.BYTES + 2 * Integer.BYTES
+                + angleBytes + serializedCodes.length);
+        buffer.putInt(MAGIC);
+        buffer.put((byte) bits.getBits());
+        buffer.put((byte) ((deltaCoding ? DELTA_FLAG : 0) | (columns > 0 ? GRID_FLAG : 0)));
+        buffer.putDouble(offset);
+        buffer.putDouble(scale);
+        buffer.putInt(size);
+        if (columns > 0) {
+            buffer.putInt(rows);
+            buffer.putInt(columns);
+            for (int i = 0; i < rows; i++) {
+                buffer.putDouble(thetaPhiList.get(i * columns).getTheta());
+            }
+            for (int j = 0; j < columns; j++) {
+                buffer.putDouble(thetaPhiList.get(j).getPhi());
+            }
+        } else {
+            buffer.putInt(0);
+            buffer.putInt(0);
+            for (ThetaPhi thetaPhi : thetaPhiList) {
+                buffer.putDouble(thetaPhi.getTheta());
+                buffer.putDouble(thetaPhi.getPhi());
+            }
+        }
+        buffer.put(serializedCodes);
+        return buffer.array();
+    }
+
+    private byte[] encodeDeltas() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size());
+        for (int i = 0; i < size(); i++) {
+            int code = getCode(codes, bits, i);
+            if (!isRowStart(thetaPhiList, i)) {
+                code -= getCode(codes, bits, i - 1);
+            }
+            // Zig-zag maps small negative and positive differences to small unsigned values
+            int value = (code << 1) ^ (code >> 31);
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] decodeDeltas(ByteBuffer buffer, List<ThetaPhi> thetaPhiList, QuantizationBits bits) {
+        int size = thetaPhiList.size();
+        byte[] codes = new byte[size * (bits.getBits() / Byte.SIZE)];
+        for (int i = 0; i < size; i++) {
+            int value = 0;
+            int shift = 0;
+            byte next;
+            do {
+                if (shift > 28) {
+                    throw new IllegalArgumentException("Invalid code at index " + i);
+                }
+                next = buffer.get();
+                value |= (next & 0x7F) << shift;
+                shift += 7;
+            } while ((next & 0x80) != 0);
+            int code = (value >>> 1) ^ -(value & 1);
+            if (!isRowStart(thetaPhiList, i)) {
+                code += getCode(codes, bits, i - 1);
+            }
+            if (code < 0 || code >= bits.getLevels()) {
+                throw new IllegalArgumentException("Code out of range at index " + i + ": " + code);
+            }
+            putCode(codes, bits, i, code);
+        }
+        return codes;
+    }
+
+    /**
+     * Deserialize pattern created by {@link #toByteArray()}.
+     * 
+     * @param bytes
+     *            the serialized pattern.
+     * 
+     * @return new instance of {@link QuantizedPattern}.
+     */
+    public static QuantizedPattern fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a serialized " + QuantizedPattern.class.getSimpleName());
+            }
+            QuantizationBits bits = toQuantizationBits(buffer.get());
+            byte flags = buffer.get();
+            double offset = buffer.getDouble();
+            double scale = buffer.getDouble();
+            int size = buffer.getInt();
+            int rows = buffer.getInt();
+            int columns = buffer.getInt();
+            List<ThetaPhi> thetaPhiList = new ArrayList<>(size);
+            if ((flags & GRID_FLAG) != 0) {
+                if ((long) rows * columns != size) {
+                    throw new IllegalArgumentException("Invalid grid " + rows + "x" + columns + " for size " + size);
+                }
+                double[] theta = new double[rows];
+                for (int i = 0; i < rows; i++) {
+                    theta[i] = buffer.getDouble();
+                }
+                double[] phi = new double[columns];
+                for (int j = 0; j < columns; j++) {
+                    phi[j] = buffer.getDouble();
+                }
+                for (int i = 0; i < rows; i++) {
+                    for (int j = 0; j < columns; j++) {
+                        thetaPhiList.add(ThetaPhi.fromRadians(theta[i], phi[j]));
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    thetaPhiList.add(ThetaPhi.fromRadians(buffer.getDouble(), buffer.getDouble()));
+                }
+            }
+            boolean deltaCoding = (flags & DELTA_FLAG) != 0;
+            byte[] codes;
+            if (deltaCoding) {
+                codes = decodeDeltas(buffer, thetaPhiList, bits);
+            } else {
+                codes = new byte[size * (bits.getBits() / Byte.SIZE)];
+                buffer.get(codes);
+            }
+            if (buffer.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes: " + buffer.remaining());
+            }
+            return new QuantizedPattern(thetaPhiList, bits, offset, scale, deltaCoding, codes);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated pattern", e);
+        }
+    }
+
+    private static QuantizationBits toQuantizationBits(int value) {
+        for (QuantizationBits bits : QuantizationBits.values()) {
+            if (bits.getBits() == value) {
+                return bits;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported code width: " + value);
+    }
+
+    private static boolean isRowStart(List<ThetaPhi> thetaPhiList, int index) {
+        return index == 0 || thetaPhiList.get(index).getTheta() != thetaPhiList.get(index - 1).getTheta();
+    }
+
+    private static int gridColumns(List<ThetaPhi> thetaPhiList) {
+        int size = thetaPhiList.size();
+        if (size == 0) {
+            return 0;
+        }
+        int columns = 1;
+        while (columns < size && !isRowStart(thetaPhiList, columns)) {
+            columns++;
+        }
+        if (size % columns != 0) {
+            return 0;
+        }
+        for (int i = columns; i < size; i++) {
+            int column = i % columns;
+            if (thetaPhiList.get(i).getPhi() != thetaPhiList.get(column).getPhi()
+                    || isRowStart(thetaPhiList, i) != (column == 0)) {
+                return 0;
+            }
+        }
+        return columns;
+    }
+
+    private static int getCode(byte[] codes, QuantizationBits bits, int index) {
+        if (bits == QuantizationBits.BITS_8) {
+            return codes[index] & 0xFF;
+        }
+        return ((codes[2 * index] & 0xFF) << Byte.SIZE) | (codes[2 * index + 1] & 0xFF);
+    }
+
+    private static void putCode(byte[] codes, QuantizationBits bits, int index, int code) {
+        if (bits == QuantizationBits.BITS_8) {
+            codes[index] = (byte) code;
+        } else {
+            codes[2 * index] = (byte) (code >>> Byte.SIZE);
+            codes[2 * index + 1] = (byte) code;
+        }
+    }
+
+    /**
+     * Create instance of {@link QuantizedPattern.Builder}.
+     * 
+     * @return new {@link QuantizedPattern.Builder} instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link QuantizedPattern}.
+     * 
+     * @author Christian Heina (developer@christianheina.com)
+     */
+    public static class Builder {
+
+        private Field field;
+        private QuantizationBits bits = QuantizationBits.BITS_16;
+        private double minimumGain = DEFAULT_MINIMUM_GAIN;
+        private boolean deltaCoding = false;
+
+        private Builder() {
+        }
+
+        /**
+         * Set field to quantize, typically calculated by {@link GaussianAntennaModel} or {@link NrAntennaModel}.
+         * {@link ElectricField#RELATIVE_GAIN} is quantized.
+         * 
+         * @param field
+         *            the field to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setField(Field field) {
+            this.field = field;
+            return this;
+        }
+
+        /**
+         * Set code width.
+         * 
+         * @param bits
+         *            the code width to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setBits(QuantizationBits bits) {
+            this.bits = bits;
+            return this;
+        }
+
+        /**
+         * Set gain floor.
+         * 
+         * @param minimumGain
+         *            the gain floor in dB to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setMinimumGain(double minimumGain) {
+            this.minimumGain = minimumGain;
+            return this;
+        }
+
+        /**
+         * Set delta coding along phi of serialized form. Differences below 64 codes take one byte, so 16 bit patterns
+         * shrink where gain varies slowly. 8 bit patterns do not shrink and only gain under external compression.
+         * 
+         * @param deltaCoding
+         *            true to enable delta coding.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setDeltaCoding(boolean deltaCoding) {
+            this.deltaCoding = deltaCoding;
+            return this;
+        }
+
+        /**
+         * Build new instance of {@link QuantizedPattern} using this instance of {@link QuantizedPattern.Builder}.
+         * 
+         * @return new instance of {@link QuantizedPattern}.
+         */
+        public QuantizedPattern build() {
+            return new QuantizedPattern(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.function.DoublePredicate;
+
+/**
+ * Numerical threshold region solver used for models without closed form solution. Angles are sampled with one degree
+ * spacing and region edges are refined using bisection.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+final class ThresholdSolver {
+
+    private static final double SAMPLE_STEP = Math.toRadians(1);
+    private static final int THETA_SAMPLES = 180;
+    private static final int PHI_SAMPLES = 360;
+    private static final int BISECTION_ITERATIONS = 40;
+
+    private ThresholdSolver() {
+        // Utility class
+    }
+
+    static AngularRegion solveCut(AntennaModel model, double phi, double gainThreshold) {
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i <= THETA_SAMPLES; i++) {
+            if (model.calculateGain(i * SAMPLE_STEP, phi) >= gainThreshold) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+            }
+        }
+        if (first < 0) {
+            return AngularRegion.EMPTY;
+        }
+        DoublePredicate inside = theta -> model.calculateGain(theta, phi) >= gainThreshold;
+        double thetaMin = first == 0 ? 0 : bisect(inside, (first - 1) * SAMPLE_STEP, first * SAMPLE_STEP);
+        double thetaMax = last == THETA_SAMPLES ? Math.PI
+                : bisect(inside, (last + 1) * SAMPLE_STEP, last * SAMPLE_STEP);
+        return new AngularRegion(thetaMin, thetaMax, phi, phi);
+    }
+
+    static AngularRegion solveRegion(AntennaModel model, double gainThreshold) {
+        double thetaMin = Double.POSITIVE_INFINITY;
+        double thetaMax = Double.NEGATIVE_INFINITY;
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i <= PHI_SAMPLES; i++) {
+            AngularRegion cut = solveCut(model, phiSample(i), gainThreshold);
+            if (!cut.isEmpty()) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+                thetaMin = Math.min(thetaMin, cut.getThetaMin());
+                thetaMax = Math.max(thetaMax, cut.getThetaMax());
+            }
+        }
+        if (first < 0) {
+            return AngularRegion.EMPTY;
+        }
+        DoublePredicate inside = phi -> !solveCut(model, phi, gainThreshold).isEmpty();
+        double phiMin = first == 0 ? -Math.PI : bisect(inside, phiSample(first - 1), phiSample(first));
+        double phiMax = last == PHI_SAMPLES ? Math.PI : bisect(inside, phiSample(last + 1), phiSample(last));
+        return new AngularRegion(thetaMin, thetaMax, phiMin, phiMax);
+    }
+
+    private static double phiSample(int index) {
+        return index * SAMPLE_STEP - Math.PI;
+    }
+
+    private static double bisect(DoublePredicate inside, double outsideValue, double insideValue) {
+        double outside = outsideValue;
+        double in = insideValue;
+        for (int i = 0; i < BISECTION_ITERATIONS; i++) {
+            double middle = (outside + in) / 2;
+            if (inside.test(middle)) {
+                in = middle;
+            } else {
+                outside = middle;
+            }
+        }
+        return in;
+    }
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model.enums;
+
+import com.christianheina.communication.jantenna.model.PatternPyramid;
+
+/**
+ * Downsampling modes used when deriving coarser levels of {@link PatternPyramid}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public enum DownsamplingMode {
+    /**
+     * Each coarse sample holds the maximum gain of all finer samples up to the neighbouring coarse samples, so peaks
+     * are never lost.
+     */
+    MAX,
+    /**
+     * Each coarse sample holds the tent weighted mean of linear power of the finer samples up to the neighbouring
+     * coarse samples, smoothing peaks. Weights are not scaled by solid angle, so radiated power is only approximately
+     * preserved, least accurately near the poles.
+     */
+    MEAN;
+}
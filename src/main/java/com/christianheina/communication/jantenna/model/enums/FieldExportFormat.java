@@ -0,0 +1,35 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model.enums;
+
+import com.christianheina.communication.jantenna.model.FieldWriter;
+
+/**
+ * File formats written by {@link FieldWriter}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public enum FieldExportFormat {
+    /**
+     * NumPy .npy file holding a one dimensional structured array with little-endian float64 fields theta, phi and
+     * gain.
+     */
+    NPY,
+    /**
+     * Headerless little-endian float64 records of theta, phi and gain.
+     */
+    RAW;
+}
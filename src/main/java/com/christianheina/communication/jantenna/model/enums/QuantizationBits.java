@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model.enums;
+
+import com.christianheina.communication.jantenna.model.QuantizedPattern;
+
+/**
+ * Code widths supported by {@link QuantizedPattern}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public enum QuantizationBits {
+    /**
+     * 8 bit codes with 256 levels.
+     */
+    BITS_8(8),
+    /**
+     * 16 bit codes with 65536 levels.
+     */
+    BITS_16(16);
+
+    private int bits;
+
+    private QuantizationBits(int bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Retrieve number of bits per code.
+     * 
+     * @return bits per code.
+     */
+    public int getBits() {
+        return bits;
+    }
+
+    /**
+     * Retrieve number of quantization levels.
+     * 
+     * @return number of distinct codes.
+     */
+    public int getLevels() {
+        return 1 << bits;
+    }
+}
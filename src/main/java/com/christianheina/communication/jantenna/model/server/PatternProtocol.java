@@ -0,0 +1,182 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model.server;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.FieldType;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+import com.christianheina.communication.jantenna.model.AntennaModel;
+import com.christianheina.communication.jantenna.model.GaussianAntennaModel;
+import com.christianheina.communication.jantenna.model.NrAntennaModel;
+import com.christianheina.communication.jantenna.model.enums.NrAntennaPolarizationModel;
+
+/**
+ * Binary batch protocol used between {@link PatternServer} and {@link RemoteAntennaModel}. All values are big-endian.
+ * A request holds magic, model type, model parameters, angle count and theta and phi pairs in radians. A response holds
+ * magic, value count and real and imaginary pairs.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+final class PatternProtocol {
+
+    static final String EVALUATE_PATH = "/evaluate";
+    static final String CONTENT_TYPE = "application/octet-stream";
+
+    private static final int MAGIC = 0x4A414D31;
+    private static final byte GAUSSIAN_MODEL = 1;
+    private static final byte NR_MODEL = 2;
+    private static final int GAUSSIAN_PARAMETERS = 2 * Double.BYTES;
+    private static final int NR_PARAMETERS = 6 * Double.BYTES + Integer.BYTES;
+    private static final int PAIR_BYTES = 2 * Double.BYTES;
+
+    private PatternProtocol() {
+    }
+
+    static boolean isSupported(AntennaModel model) {
+        return model instanceof GaussianAntennaModel || model instanceof NrAntennaModel;
+    }
+
+    static byte[] encodeRequest(AntennaModel model, List<ThetaPhi> thetaPhiList) {
+        int parameterBytes;
+        if (model instanceof GaussianAntennaModel) {
+            parameterBytes = GAUSSIAN_PARAMETERS;
+        } else if (model instanceof NrAntennaModel) {
+            parameterBytes = NR_PARAMETERS;
+        } else {
+            throw new IllegalArgumentException("Unsupported model: " + model.getClass().getName());
+        }
+        ByteBuffer buffer = ByteBuffer
+                .allocate(Integer.BYTES + 1 + parameterBytes + Integer.BYTES + thetaPhiList.size() * PAIR_BYTES);
+        buffer.putInt(MAGIC);
+        if (model instanceof GaussianAntennaModel) {
+            GaussianAntennaModel gaussianModel = (GaussianAntennaModel) model;
+            buffer.put(GAUSSIAN_MODEL);
+            buffer.putDouble(gaussianModel.getVerticalHalfPowerBeamWidth());
+            buffer.putDouble(gaussianModel.getHorizontalHalfPowerBeamWidth());
+        } else {
+            NrAntennaModel nrModel = (NrAntennaModel) model;
+            buffer.put(NR_MODEL);
+            buffer.putDouble(nrModel.getVerticalHalfPowerBeamWidth());
+            buffer.putDouble(nrModel.getHorizontalHalfPowerBeamWidth());
+            buffer.putDouble(nrModel.getVerticalSidelobeAttenuation());
+            buffer.putDouble(nrModel.getMaximumGain());
+            buffer.putDouble(nrModel.getPolarizationSlantAngle());
+            buffer.putDouble(nrModel.getMaximumAttenuation());
+            buffer.putInt(nrModel.getPolarizationModel().getModelValue());
+        }
+        buffer.putInt(thetaPhiList.size());
+        for (ThetaPhi thetaPhi : thetaPhiList) {
+            buffer.putDouble(thetaPhi.getTheta());
+            buffer.putDouble(thetaPhi.getPhi());
+        }
+        return buffer.array();
+    }
+
+    static byte[] evaluateRequest(byte[] request) {
+        ByteBuffer buffer = ByteBuffer.wrap(request);
+        try {
+            checkMagic(buffer);
+            AntennaModel model = decodeModel(buffer);
+            int count = buffer.getInt();
+            if (count < 0 || buffer.remaining() != (long) count * PAIR_BYTES) {
+                throw new IllegalArgumentException("Invalid angle count: " + count);
+            }
+            List<ThetaPhi> thetaPhiList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                double theta = buffer.getDouble();
+                double phi = buffer.getDouble();
+                thetaPhiList.add(ThetaPhi.fromRadians(theta, phi));
+            }
+            return encodeResponse(model.calculateField(thetaPhiList).getElectricField(ElectricField.RELATIVE_GAIN));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated request", e);
+        }
+    }
+
+    private static AntennaModel decodeModel(ByteBuffer buffer) {
+        byte type = buffer.get();
+        if (type == GAUSSIAN_MODEL) {
+            return AntennaModel.newGaussianAntennaModelBuilder().setVerticalHalfPowerBeamWidth(buffer.getDouble())
+                    .setHorizontalHalfPowerBeamWidth(buffer.getDouble()).build();
+        } else if (type == NR_MODEL) {
+            return AntennaModel.newNrAntennaModelBuilder().setVerticalHalfPowerBeamWidth(buffer.getDouble())
+                    .setHorizontalHalfPowerBeamWidth(buffer.getDouble())
+                    .setVerticalSidelobeAttenuation(buffer.getDouble()).setMaximumGain(buffer.getDouble())
+                    .setPolarizationSlantAngle(buffer.getDouble()).setMaximumAttenuation(buffer.getDouble())
+                    .setPolarizationModel(decodePolarizationModel(buffer.getInt())).build();
+        }
+        throw new IllegalArgumentException("Unsupported model type: " + type);
+    }
+
+    private static NrAntennaPolarizationModel decodePolarizationModel(int modelValue) {
+        for (NrAntennaPolarizationModel polarizationModel : NrAntennaPolarizationModel.values()) {
+            if (polarizationModel.getModelValue() == modelValue) {
+                return polarizationModel;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported polarization model: " + modelValue);
+    }
+
+    static byte[] encodeResponse(List<Complex> valueList) {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + valueList.size() * PAIR_BYTES);
+        buffer.putInt(MAGIC);
+        buffer.putInt(valueList.size());
+        for (Complex value : valueList) {
+            buffer.putDouble(value.getReal());
+            buffer.putDouble(value.getImaginary());
+        }
+        return buffer.array();
+    }
+
+    static List<Complex> decodeResponse(byte[] response) {
+        ByteBuffer buffer = ByteBuffer.wrap(response);
+        try {
+            checkMagic(buffer);
+            int count = buffer.getInt();
+            if (count < 0 || buffer.remaining() != (long) count * PAIR_BYTES) {
+                throw new IllegalArgumentException("Invalid value count: " + count);
+            }
+            List<Complex> valueList = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                valueList.add(new Complex(buffer.getDouble(), buffer.getDouble()));
+            }
+            return valueList;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated response", e);
+        }
+    }
+
+    private static void checkMagic(ByteBuffer buffer) {
+        int magic = buffer.getInt();
+        if (magic != MAGIC) {
+            throw new IllegalArgumentException("Invalid magic: " + Integer.toHexString(magic));
+        }
+    }
+
+    static Field toField(List<ThetaPhi> thetaPhiList, List<Complex> valueList) {
+        return Field.newBuilder().setThetaPhiList(thetaPhiList).addElectricField(ElectricField.RELATIVE_GAIN, valueList)
+                .setFieldType(FieldType.FARFIELD).build();
+    }
+
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local pattern evaluation service built on the JDK HTTP server. Models are evaluated from the binary batch protocol
+ * used by {@link RemoteAntennaModel} on a fixed worker pool with a bounded queue, requests that do not fit in the queue
+ * are rejected with status 503. Requests are identified by their SHA-256 digest, concurrent identical requests are
+ * coalesced into a single evaluation and responses are kept in a shared least recently used cache bounded in bytes.
+ * Request size and the time a request waits for its evaluation are bounded. Queued requests keep their payload until
+ * evaluated, so memory is bounded by maximum queued evaluations times maximum request bytes.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public class PatternServer {
+
+    /**
+     * Default host name, bound to loopback only.
+     */
+    public static final String DEFAULT_HOST = "127.0.0.1";
+
+    /**
+     * Default port, zero selects an ephemeral port.
+     */
+    public static final int DEFAULT_PORT = 0;
+
+    /**
+     * Default number of evaluation worker threads.
+     */
+    public static final int DEFAULT_WORKER_THREADS = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Default maximum number of evaluations waiting for a worker thread.
+     */
+    public static final int DEFAULT_MAXIMUM_QUEUED_EVALUATIONS = 16;
+
+    /**
+     * Default maximum number of cached response bytes.
+     */
+    public static final long DEFAULT_MAXIMUM_CACHE_BYTES = 64L * 1024 * 1024;
+
+    /**
+     * Default maximum number of request bytes.
+     */
+    public static final int DEFAULT_MAXIMUM_REQUEST_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * Default time in milliseconds a request waits for its evaluation.
+     */
+    public static final long DEFAULT_TIMEOUT = 60000;
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final int HTTP_BAD_METHOD = 405;
+    private static final int HTTP_ENTITY_TOO_LARGE = 413;
+    private static final int HTTP_INTERNAL_ERROR = 500;
+    private static final int HTTP_UNAVAILABLE = 503;
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private final String host;
+    private final int port;
+    private final int workerThreads;
+    private final int maximumQueuedEvaluations;
+    private final long maximumCacheBytes;
+    private final int maximumRequestBytes;
+    private final long timeout;
+    private final Map<RequestKey, CompletableFuture<byte[]>> inFlightMap = new ConcurrentHashMap<>();
+    private final Map<RequestKey, byte[]> cacheMap = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong evaluationCount = new AtomicLong();
+    private final AtomicLong cacheHitCount = new AtomicLong();
+    private long cacheBytes = 0;
+    private HttpServer httpServer;
+    private ExecutorService httpExecutor;
+    private ThreadPoolExecutor workerExecutor;
+
+    private PatternServer(Builder builder) {
+        if (builder.workerThreads <= 0 || builder.maximumQueuedEvaluations <= 0 || builder.maximumRequestBytes <= 0
+                || builder.timeout <= 0) {
+            throw new IllegalArgumentException(
+                    "Worker threads, maximum queued evaluations, maximum request bytes and timeout must be positive");
+        }
+        if (builder.maximumCacheBytes < 0) {
+            throw new IllegalArgumentException("Maximum cache bytes must not be negative");
+        }
+        this.host = builder.host;
+        this.port = builder.port;
+        this.workerThreads = builder.workerThreads;
+        this.maximumQueuedEvaluations = builder.maximumQueuedEvaluations;
+        this.maximumCacheBytes = builder.maximumCacheBytes;
+        this.maximumRequestBytes = builder.maximumRequestBytes;
+        this.timeout = builder.timeout;
+    }
+
+    /**
+     * Start server.
+     * 
+     * @return this instance of {@link PatternServer}.
+     * 
+     * @throws IOException
+     *             if server socket could not be bound.
+     */
+    public synchronized PatternServer start() throws IOException {
+        if (httpServer != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+        workerExecutor = new ThreadPoolExecutor(workerThreads, workerThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maximumQueuedEvaluations));
+        // Request threads only wait on evaluations, so they are allowed to outnumber the workers
+        httpExecutor = Executors.newFixedThreadPool(2 * workerThreads);
+        httpServer.setExecutor(httpExecutor);
+        httpServer.createContext(PatternProtocol.EVALUATE_PATH, this::handle);
+        httpServer.start();
+        return this;
+    }
+
+    /**
+     * Stop server and release worker threads. Evaluations not yet completed are failed, so the server can be started
+     * again without requests waiting on them.
+     */
+    public synchronized void stop() {
+        if (httpServer == null) {
+            return;
+        }
+        httpServer.stop(0);
+        httpExecutor.shutdownNow();
+        workerExecutor.shutdownNow();
+        try {
+            workerExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Queued evaluations were dropped by shutdownNow and would otherwise never complete
+        Iterator<CompletableFuture<byte[]>> iterator = inFlightMap.values().iterator();
+        while (iterator.hasNext()) {
+            iterator.next().completeExceptionally(new RejectedExecutionException("Server stopped"));
+            iterator.remove();
+        }
+        httpServer = null;
+    }
+
+    /**
+     * Retrieve bound port.
+     * 
+     * @return port server is listening on, or configured port if not started.
+     */
+    public synchronized int getPort() {
+        return httpServer == null ? port : httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Retrieve worker executor, tests use it to occupy workers and inspect the queue.
+     */
+    synchronized ThreadPoolExecutor getWorkerExecutor() {
+        return workerExecutor;
+    }
+
+    /**
+     * Retrieve host name.
+     * 
+     * @return host name server is bound to.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Retrieve number of model evaluations performed.
+     * 
+     * @return number of evaluations, coalesced and cached requests are not counted.
+     */
+    public long getEvaluationCount() {
+        return evaluationCount.get();
+    }
+
+    /**
+     * Retrieve number of requests answered from cache.
+     * 
+     * @return number of cache hits.
+     */
+    public long getCacheHitCount() {
+        return cacheHitCount.get();
+    }
+
+    /**
+     * Retrieve number of cached response bytes.
+     * 
+     * @return number of bytes currently held by the cache.
+     */
+    public long getCacheBytes() {
+        synchronized (cacheMap) {
+            return cacheBytes;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendError(exchange, HTTP_BAD_METHOD, "POST required");
+                return;
+            }
+            byte[] request = readRequest(exchange.getRequestBody());
+            if (request == null) {
+                sendError(exchange, HTTP_ENTITY_TOO_LARGE, "Request exceeds " + maximumRequestBytes + " bytes");
+                return;
+            }
+            byte[] response;
+            try {
+                response = evaluate(new RequestKey(request), request);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IllegalArgumentException) {
+                    sendError(exchange, HTTP_BAD_REQUEST, e.getCause().getMessage());
+                } else if (e.getCause() instanceof RejectedExecutionException) {
+                    sendError(exchange, HTTP_UNAVAILABLE, "Evaluation rejected: " + e.getCause().getMessage());
+                } else {
+                    sendError(exchange, HTTP_INTERNAL_ERROR, String.valueOf(e.getCause()));
+                }
+                return;
+            } catch (TimeoutException e) {
+                sendError(exchange, HTTP_UNAVAILABLE, "Evaluation not completed within " + timeout + " ms");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendError(exchange, HTTP_INTERNAL_ERROR, "Interrupted");
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", PatternProtocol.CONTENT_TYPE);
+            exchange.sendResponseHeaders(HTTP_OK, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private byte[] evaluate(RequestKey key, byte[] request)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        byte[] cached = getCached(key);
+        if (cached != null) {
+            cacheHitCount.incrementAndGet();
+            return cached;
+        }
+        CompletableFuture<byte[]> evaluation = new CompletableFuture<>();
+        CompletableFuture<byte[]> inFlight = inFlightMap.putIfAbsent(key, evaluation);
+        if (inFlight != null) {
+            // Identical request already being evaluated, share its result
+            return inFlight.get(timeout, TimeUnit.MILLISECONDS);
+        }
+        try {
+            workerExecutor.execute(() -> evaluate(key, request, evaluation));
+        } catch (RejectedExecutionException e) {
+            inFlightMap.remove(key, evaluation);
+            evaluation.completeExceptionally(e);
+        }
+        return evaluation.get(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    private void evaluate(RequestKey key, byte[] request, CompletableFuture<byte[]> evaluation) {
+        try {
+            byte[] result = getCached(key);
+            if (result == null) {
+                evaluationCount.incrementAndGet();
+                result = PatternProtocol.evaluateRequest(request);
+                putCached(key, result);
+            }
+            evaluation.complete(result);
+        } catch (Throwable e) {
+            // Errors must complete the evaluation as well, otherwise coalesced requests wait until timeout
+            evaluation.completeExceptionally(e);
+        } finally {
+            // Result is cached before leaving the in-flight map so no request misses both
+            inFlightMap.remove(key, evaluation);
+        }
+    }
+
+    private byte[] getCached(RequestKey key) {
+        synchronized (cacheMap) {
+            return cacheMap.get(key);
+        }
+    }
+
+    private void putCached(RequestKey key, byte[] response) {
+        if (response.length > maximumCacheBytes) {
+            return;
+        }
+        synchronized (cacheMap) {
+            byte[] previous = cacheMap.put(key, response);
+            cacheBytes += response.length - (previous == null ? 0 : previous.length);
+            // Access ordered, so iteration starts at the least recently used response
+            Iterator<byte[]> iterator = cacheMap.values().iterator();
+            while (cacheBytes > maximumCacheBytes) {
+                cacheBytes -= iterator.next().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Read request body, returning null as soon as it exceeds the maximum request size.
+     */
+    private byte[] readRequest(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > maximumRequestBytes) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        byte[] body = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Create instance of {@link PatternServer.Builder}.
+     * 
+     * @return new {@link PatternServer.Builder} instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Request identity based on the SHA-256 digest of the request, so neither cache nor in-flight map keeps payloads.
+     */
+    private static final class RequestKey {
+
+        private final byte[] digest;
+        private final int hash;
+
+        private RequestKey(byte[] request) {
+            try {
+                this.digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(request);
+            } catch (NoSuchAlgorithmException e) {
+                // Every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+            this.hash = Arrays.hashCode(digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof RequestKey && Arrays.equals(digest, ((RequestKey) obj).digest);
+        }
+
+    }
+
+    /**
+     * Builder for {@link PatternServer}.
+     * 
+     * @author Christian Heina (developer@christianheina.com)
+     */
+    public static class Builder {
+
+        private String host = DEFAULT_HOST;
+        private int port = DEFAULT_PORT;
+        private int workerThreads = DEFAULT_WORKER_THREADS;
+        private int maximumQueuedEvaluations = DEFAULT_MAXIMUM_QUEUED_EVALUATIONS;
+        private long maximumCacheBytes = DEFAULT_MAXIMUM_CACHE_BYTES;
+        private int maximumRequestBytes = DEFAULT_MAXIMUM_REQUEST_BYTES;
+        private long timeout = DEFAULT_TIMEOUT;
+
+        private Builder() {
+        }
+
+        /**
+         * Set host name to bind to.
+         * 
+         * @param host
+         *            the host name to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setHost(String host) {
+            this.host = host;
+            return this;
+        }
+
+        /**
+         * Set port to listen on.
+         * 
+         * @param port
+         *            the port to set, zero selects an ephemeral port.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setPort(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Set number of evaluation worker threads.
+         * 
+         * @param workerThreads
+         *            the number of worker threads to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+            return this;
+        }
+
+        /**
+         * Set maximum number of evaluations waiting for a worker thread, further requests are rejected.
+         * 
+         * @param maximumQueuedEvaluations
+         *            the maximum number of queued evaluations to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setMaximumQueuedEvaluations(int maximumQueuedEvaluations) {
+            this.maximumQueuedEvaluations = maximumQueuedEvaluations;
+            return this;
+        }
+
+        /**
+         * Set maximum number of cached response bytes, least recently used responses are evicted beyond it.
+         * 
+         * @param maximumCacheBytes
+         *            the maximum number of bytes to set, zero disables caching.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setMaximumCacheBytes(long maximumCacheBytes) {
+            this.maximumCacheBytes = maximumCacheBytes;
+            return this;
+        }
+
+        /**
+         * Set maximum number of request bytes, larger requests are rejected.
+         * 
+         * @param maximumRequestBytes
+         *            the maximum number of bytes to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setMaximumRequestBytes(int maximumRequestBytes) {
+            this.maximumRequestBytes = maximumRequestBytes;
+            return this;
+        }
+
+        /**
+         * Set time a request waits for its evaluation before failing.
+         * 
+         * @param timeout
+         *            the timeout in milliseconds to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setTimeout(long timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Build new instance of {@link PatternServer} using this instance of {@link PatternServer.Builder}.
+         * 
+         * @return new instance of {@link PatternServer}.
+         */
+        public PatternServer build() {
+            return new PatternServer(this);
+        }
+
+    }
+
+}
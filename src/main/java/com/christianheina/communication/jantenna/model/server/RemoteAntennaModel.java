@@ -0,0 +1,254 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+import com.christianheina.communication.jantenna.model.AngularRegion;
+import com.christianheina.communication.jantenna.model.AntennaModel;
+import com.christianheina.communication.jantenna.model.LazyField;
+import com.christianheina.communication.jantenna.model.MultiFrequencyField;
+
+/**
+ * Antenna model evaluated by a {@link PatternServer}. The wrapped {@link AntennaModel} describes the model and is sent
+ * to the server together with the angles, so it can be swapped in wherever a local model is used. Only
+ * GaussianAntennaModel and NrAntennaModel are supported. Batch field calculations, also at several frequencies, are
+ * sent to the server as one request, while per sample gain, threshold and contour queries and lazy fields are answered
+ * by the wrapped model, which has the same closed form, instead of making one request per sample.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+public class RemoteAntennaModel implements AntennaModel {
+
+    /**
+     * Default connect and read timeout in milliseconds.
+     */
+    public static final int DEFAULT_TIMEOUT = 30000;
+
+    private final AntennaModel model;
+    private final URL url;
+    private final int timeout;
+
+    private RemoteAntennaModel(Builder builder) {
+        if (!PatternProtocol.isSupported(builder.model)) {
+            throw new IllegalArgumentException("Unsupported model: " + builder.model);
+        }
+        this.model = builder.model;
+        this.url = builder.url;
+        this.timeout = builder.timeout;
+    }
+
+    @Override
+    public Field calculateField(List<ThetaPhi> thetaPhiList) {
+        return PatternProtocol.toField(thetaPhiList, post(PatternProtocol.encodeRequest(model, thetaPhiList)));
+    }
+
+    /**
+     * Calculate antenna model at several frequencies with a single request. Supported models do not depend on
+     * frequency, so the batch result is used at every frequency.
+     * 
+     * @param thetaPhiList
+     *            the theta and phi angles where the model is calculated.
+     * @param frequencies
+     *            the frequencies in Hz where the model is calculated.
+     * 
+     * @return new instance of {@link MultiFrequencyField} containing the model.
+     */
+    @Override
+    public MultiFrequencyField calculateField(List<ThetaPhi> thetaPhiList, double[] frequencies) {
+        return MultiFrequencyField.fromValues(thetaPhiList, frequencies,
+                post(PatternProtocol.encodeRequest(model, thetaPhiList)));
+    }
+
+    @Override
+    public Complex calculateAngle(ThetaPhi thetaPhi) {
+        return post(PatternProtocol.encodeRequest(model, Collections.singletonList(thetaPhi))).get(0);
+    }
+
+    @Override
+    public double calculateGain(double theta, double phi) {
+        return model.calculateGain(theta, phi);
+    }
+
+    @Override
+    public AngularRegion calculateThresholdCut(double phi, double gainThreshold) {
+        return model.calculateThresholdCut(phi, gainThreshold);
+    }
+
+    @Override
+    public AngularRegion calculateThresholdRegion(double gainThreshold) {
+        return model.calculateThresholdRegion(gainThreshold);
+    }
+
+    @Override
+    public List<ThetaPhi> calculateContour(double gainThreshold, double phiStep) {
+        return model.calculateContour(gainThreshold, phiStep);
+    }
+
+    @Override
+    public LazyField calculateLazyField(List<ThetaPhi> thetaPhiList, boolean memoize) {
+        return model.calculateLazyField(thetaPhiList, memoize);
+    }
+
+    private List<Complex> post(byte[] request) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(timeout);
+            connection.setReadTimeout(timeout);
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(request.length);
+            connection.setRequestProperty("Content-Type", PatternProtocol.CONTENT_TYPE);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(request);
+            }
+            int status = connection.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                String message = new String(readFully(connection.getErrorStream()), StandardCharsets.UTF_8);
+                throw new IllegalStateException("Remote evaluation failed with status " + status + ": " + message);
+            }
+            try (InputStream in = connection.getInputStream()) {
+                return PatternProtocol.decodeResponse(readFully(in));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (in == null) {
+            return out.toByteArray();
+        }
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Retrieve model evaluated remotely.
+     * 
+     * @return model description sent to server.
+     */
+    public AntennaModel getModel() {
+        return model;
+    }
+
+    /**
+     * Retrieve server URL.
+     * 
+     * @return URL of server evaluation endpoint.
+     */
+    public URL getUrl() {
+        return url;
+    }
+
+    /**
+     * Create instance of {@link RemoteAntennaModel.Builder}.
+     * 
+     * @return new {@link RemoteAntennaModel.Builder} instance.
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link RemoteAntennaModel}.
+     * 
+     * @author Christian Heina (developer@christianheina.com)
+     */
+    public static class Builder {
+
+        private AntennaModel model;
+        private URL url;
+        private int timeout = DEFAULT_TIMEOUT;
+
+        private Builder() {
+        }
+
+        /**
+         * Set model to evaluate remotely.
+         * 
+         * @param model
+         *            the model to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setModel(AntennaModel model) {
+            this.model = model;
+            return this;
+        }
+
+        /**
+         * Set server address.
+         * 
+         * @param host
+         *            the server host name.
+         * @param port
+         *            the server port.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setServer(String host, int port) {
+            try {
+                this.url = new URL("http", host, port, PatternProtocol.EVALUATE_PATH);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+            return this;
+        }
+
+        /**
+         * Set connect and read timeout.
+         * 
+         * @param timeout
+         *            the timeout in milliseconds to set.
+         * 
+         * @return this instance of {@link Builder}.
+         */
+        public Builder setTimeout(int timeout) {
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Build new instance of {@link RemoteAntennaModel} using this instance of {@link RemoteAntennaModel.Builder}.
+         * 
+         * @return new instance of {@link RemoteAntennaModel}.
+         */
+        public RemoteAntennaModel build() {
+            return new RemoteAntennaModel(this);
+        }
+
+    }
+
+}
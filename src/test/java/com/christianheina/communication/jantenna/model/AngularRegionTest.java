@@ -0,0 +1,48 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Unit test for {@link AngularRegion}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class AngularRegionTest {
+
+    @Test
+    public void containsTest() {
+        AngularRegion region = new AngularRegion(Math.toRadians(80), Math.toRadians(100), Math.toRadians(-10),
+                Math.toRadians(10));
+        Assert.assertFalse(region.isEmpty());
+        Assert.assertTrue(region.contains(ThetaPhi.fromDegrees(90, 0)));
+        Assert.assertFalse(region.contains(ThetaPhi.fromDegrees(90, 20)));
+        Assert.assertFalse(region.contains(ThetaPhi.fromDegrees(70, 0)));
+    }
+
+    @Test
+    public void emptyTest() {
+        Assert.assertTrue(AngularRegion.EMPTY.isEmpty());
+        Assert.assertFalse(AngularRegion.EMPTY.contains(ThetaPhi.fromDegrees(90, 0)));
+        Assert.assertTrue(AngularRegion.FULL.contains(ThetaPhi.fromDegrees(0, 180)));
+    }
+
+}
@@ -15,9 +15,13 @@
  */
 package com.christianheina.communication.jantenna.model;
 
+import java.util.List;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
 /**
  * Unit test for {@link ConjugateWeightAlgorithm}.
  * 
@@ -37,4 +41,48 @@ public class AntennaModelTest {
         Assert.assertEquals(AntennaModel.newNrAntennaModelBuilder().getClass(), NrAntennaModel.Builder.class);
     }
 
+    @Test
+    public void newArrayAntennaModelBuilderTest() {
+        Assert.assertEquals(AntennaModel.newArrayAntennaModelBuilder().getClass(), ArrayAntennaModel.Builder.class);
+    }
+
+    @Test
+    public void newCompositeAntennaModelBuilderTest() {
+        Assert.assertEquals(AntennaModel.newCompositeAntennaModelBuilder().getClass(),
+                CompositeAntennaModel.Builder.class);
+    }
+
+    @Test
+    public void calculateMultiFrequencyFieldTest() {
+        AntennaModel model = AntennaModel.newGaussianAntennaModelBuilder().build();
+        List<ThetaPhi> angleList = ThetaPhi.equallySpacedSphere(10);
+        MultiFrequencyField field = model.calculateField(angleList, new double[] { 1e9, 2e9 });
+        Assert.assertEquals(field.getFrequencyCount(), 2);
+        for (int i = 0; i < angleList.size(); i++) {
+            Assert.assertEquals(field.getReal(0, i), model.calculateAngle(angleList.get(i)).getReal());
+            Assert.assertEquals(field.getReal(1, i), field.getReal(0, i));
+        }
+    }
+
+    @Test
+    public void calculateContourTest() {
+        AntennaModel model = AntennaModel.newNrAntennaModelBuilder().build();
+        double threshold = NrAntennaModel.DEFAULT_MAXIMUM_GAIN - 10;
+        List<ThetaPhi> contour = model.calculateContour(threshold, 1);
+        Assert.assertFalse(contour.isEmpty());
+        for (ThetaPhi thetaPhi : contour) {
+            Assert.assertEquals(model.calculateGain(thetaPhi.getTheta(), thetaPhi.getPhi()), threshold, 1e-9);
+        }
+        Assert.assertTrue(model.calculateContour(NrAntennaModel.DEFAULT_MAXIMUM_GAIN + 1, 1).isEmpty());
+        // Lower bound is traced back towards the first phi
+        ThetaPhi last = contour.get(contour.size() - 1);
+        Assert.assertEquals(last.getPhi(), contour.get(0).getPhi());
+        Assert.assertTrue(last.getTheta() < contour.get(0).getTheta());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void calculateContourInvalidStepTest() {
+        AntennaModel.newNrAntennaModelBuilder().build().calculateContour(0, 0);
+    }
+
 }
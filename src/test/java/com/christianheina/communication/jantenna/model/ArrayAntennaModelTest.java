@@ -0,0 +1,98 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Unit test for {@link ArrayAntennaModel}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class ArrayAntennaModelTest {
+
+    private static final double SPACING = 0.05;
+    private static final double[] FREQUENCIES = { 2e9, 3e9, 3.5e9 };
+
+    private static ArrayAntennaModel.Builder newArrayBuilder() {
+        return ArrayAntennaModel.newBuilder().setElementModel(GaussianAntennaModel.newBuilder().build())
+                .addElement(0, -SPACING, 0).addElement(0, 0, 0).addElement(0, SPACING, 0, new Complex(0, 1));
+    }
+
+    @Test
+    public void defaultBuilderTest() {
+        ArrayAntennaModel model = ArrayAntennaModel.newBuilder().addElement(0, 0, 0).build();
+        Assert.assertEquals(model.getFrequency(), ArrayAntennaModel.DEFAULT_FREQUENCY);
+        Assert.assertEquals(model.getElementModel().getClass(), NrAntennaModel.class);
+        Assert.assertEquals(model.getElementCount(), 1);
+    }
+
+    @Test
+    public void calculateAngleTest() {
+        ArrayAntennaModel model = ArrayAntennaModel.newBuilder()
+                .setElementModel(GaussianAntennaModel.newBuilder().build()).addElement(0, -SPACING, 0)
+                .addElement(0, SPACING, 0).build();
+        Complex broadside = model.calculateAngle(ThetaPhi.fromDegrees(90, 0));
+        Assert.assertEquals(broadside.getReal(), 2, 1e-12);
+        Assert.assertEquals(broadside.getImaginary(), 0, 1e-12);
+    }
+
+    @Test
+    public void calculateMultiFrequencyFieldTest() {
+        List<ThetaPhi> angleList = ThetaPhi.equallySpacedSphere(15);
+        MultiFrequencyField field = newArrayBuilder().build().calculateField(angleList, FREQUENCIES);
+        Assert.assertEquals(field.getFrequencyCount(), FREQUENCIES.length);
+        for (int f = 0; f < FREQUENCIES.length; f++) {
+            ArrayAntennaModel model = newArrayBuilder().setFrequency(FREQUENCIES[f]).build();
+            for (int i = 0; i < angleList.size(); i++) {
+                Complex expected = model.calculateAngle(angleList.get(i));
+                Assert.assertEquals(field.getReal(f, i), expected.getReal(), 1e-12);
+                Assert.assertEquals(field.getImaginary(f, i), expected.getImaginary(), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void calculateFieldTest() {
+        ArrayAntennaModel model = newArrayBuilder().build();
+        List<ThetaPhi> angleList = ThetaPhi.equallySpacedSphere(30);
+        Field field = model.calculateField(angleList);
+        List<Complex> values = field.getElectricField(ElectricField.RELATIVE_GAIN);
+        for (int i = 0; i < angleList.size(); i++) {
+            Assert.assertEquals(values.get(i).getReal(), model.calculateAngle(angleList.get(i)).getReal(), 1e-12);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void noElementTest() {
+        ArrayAntennaModel.newBuilder().build();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidFrequencyTest() {
+        ArrayAntennaModel.newBuilder().addElement(0, 0, 0).setFrequency(0).build();
+    }
+
+}
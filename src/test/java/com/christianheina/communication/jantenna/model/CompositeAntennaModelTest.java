@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.complex.ComplexUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Unit test for {@link CompositeAntennaModel}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class CompositeAntennaModelTest {
+
+    private static final NrAntennaModel FIRST_MODEL = NrAntennaModel.newBuilder().setVerticalHalfPowerBeamWidth(10)
+            .build();
+    private static final GaussianAntennaModel SECOND_MODEL = GaussianAntennaModel.newBuilder()
+            .setHorizontalHalfPowerBeamWidth(30).build();
+    private static final Complex FIRST_WEIGHT = new Complex(0.5, 0);
+    private static final Complex SECOND_WEIGHT = ComplexUtils.polar2Complex(2, Math.PI / 3);
+
+    private static CompositeAntennaModel newModel() {
+        return CompositeAntennaModel.newBuilder().addModel(FIRST_MODEL, FIRST_WEIGHT)
+                .addModel(SECOND_MODEL, SECOND_WEIGHT).build();
+    }
+
+    private static Complex expected(ThetaPhi thetaPhi) {
+        return FIRST_MODEL.calculateAngle(thetaPhi).multiply(FIRST_WEIGHT)
+                .add(SECOND_MODEL.calculateAngle(thetaPhi).multiply(SECOND_WEIGHT));
+    }
+
+    @Test
+    public void builderTest() {
+        CompositeAntennaModel model = newModel();
+        Assert.assertEquals(model.getModelCount(), 2);
+        Assert.assertSame(model.getModel(1), SECOND_MODEL);
+        Assert.assertSame(model.getWeight(1), SECOND_WEIGHT);
+    }
+
+    @Test
+    public void calculateAngleTest() {
+        CompositeAntennaModel model = newModel();
+        ThetaPhi thetaPhi = ThetaPhi.fromDegrees(80, 10);
+        Complex value = model.calculateAngle(thetaPhi);
+        Assert.assertEquals(value.getReal(), expected(thetaPhi).getReal(), 1e-12);
+        Assert.assertEquals(value.getImaginary(), expected(thetaPhi).getImaginary(), 1e-12);
+        Assert.assertEquals(model.calculateGain(thetaPhi.getTheta(), thetaPhi.getPhi()),
+                20 * Math.log10(expected(thetaPhi).abs()), 1e-9);
+    }
+
+    @Test
+    public void calculateFieldTest() {
+        CompositeAntennaModel model = newModel();
+        List<ThetaPhi> angleList = ThetaPhi.equallySpacedSphere(10);
+        Field field = model.calculateField(angleList);
+        List<Complex> values = field.getElectricField(ElectricField.RELATIVE_GAIN);
+        for (int i = 0; i < angleList.size(); i++) {
+            Complex expected = expected(angleList.get(i));
+            Assert.assertEquals(values.get(i).getReal(), expected.getReal(), 1e-12);
+            Assert.assertEquals(values.get(i).getImaginary(), expected.getImaginary(), 1e-12);
+        }
+    }
+
+    @Test
+    public void calculateNestedFieldTest() {
+        CompositeAntennaModel inner = newModel();
+        CompositeAntennaModel model = CompositeAntennaModel.newBuilder().addModel(inner, new Complex(0, 1)).build();
+        List<ThetaPhi> angleList = ThetaPhi.equallySpacedSphere(20);
+        List<Complex> values = model.calculateField(angleList).getElectricField(ElectricField.RELATIVE_GAIN);
+        for (int i = 0; i < angleList.size(); i++) {
+            Complex expected = expected(angleList.get(i)).multiply(new Complex(0, 1));
+            Assert.assertEquals(values.get(i).getReal(), expected.getReal(), 1e-12);
+            Assert.assertEquals(values.get(i).getImaginary(), expected.getImaginary(), 1e-12);
+        }
+        MultiFrequencyField multiFrequencyField = model.calculateField(angleList, new double[] { 1e9 });
+        Assert.assertEquals(multiFrequencyField.getReal(0, 3), values.get(3).getReal(), 1e-12);
+    }
+
+    @Test
+    public void calculateOrientedTest() {
+        NrAntennaModel panel = NrAntennaModel.newBuilder().build();
+        CompositeAntennaModel model = CompositeAntennaModel.newBuilder().addModel(panel, Complex.ONE, 0, 0)
+                .addModel(panel, Complex.ONE, 90, 10).build();
+        Assert.assertEquals(model.getAzimuth(1), 90.0);
+        Assert.assertEquals(model.getDowntilt(1), 10.0);
+        // Boresight of the second panel is at azimuth 90 degrees and 10 degrees below the horizontal plane
+        ThetaPhi thetaPhi = ThetaPhi.fromDegrees(100, 90);
+        Complex expected = panel.calculateAngle(thetaPhi).add(panel.calculateAngle(ThetaPhi.fromDegrees(90, 0)));
+        Complex actual = model.calculateAngle(thetaPhi);
+        Assert.assertEquals(actual.getReal(), expected.getReal(), 1e-9);
+        Assert.assertEquals(actual.getImaginary(), expected.getImaginary(), 1e-9);
+        Assert.assertEquals(model.calculateGain(thetaPhi.getTheta(), thetaPhi.getPhi()),
+                20 * Math.log10(expected.abs()), 1e-9);
+
+        List<ThetaPhi> angleList = ThetaPhi.equallySpacedSphere(30);
+        MultiFrequencyField field = model.calculateField(angleList, new double[] { 3.5e9 });
+        for (int i = 0; i < angleList.size(); i++) {
+            Complex value = model.calculateAngle(angleList.get(i));
+            Assert.assertEquals(field.getReal(0, i), value.getReal(), 1e-12);
+            Assert.assertEquals(field.getImaginary(0, i), value.getImaginary(), 1e-12);
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit test for {@link CoverageRasterEngine}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class CoverageRasterEngineTest {
+
+    @Test
+    public void linkGainTest() {
+        NrAntennaModel nrModel = NrAntennaModel.newBuilder().build();
+        GaussianAntennaModel gaussianModel = GaussianAntennaModel.newBuilder().build();
+        CoverageRasterEngine engine = CoverageRasterEngine.newBuilder().setSize(50, 40).setPixelSize(10)
+                .setMaximumDistance(1000).setTileSize(16).setThreads(3).addSite(nrModel, 100, 100, 30, 30, 0)
+                .addSite(nrModel, 400, 300, 30, 200, 6).addSite(gaussianModel, 250, 50, 20, -90, 3).build();
+        CoverageRaster raster = engine.calculate();
+        Assert.assertEquals(engine.getAngleTableCount(), 3);
+        Assert.assertEquals(raster.getTileList().size(), 4 * 3);
+        Assert.assertEquals(raster.getTile(3, 2).getWidth(), 2);
+        Assert.assertEquals(raster.getTile(3, 2).getHeight(), 8);
+
+        double[] x = new double[50 * 40];
+        double[] y = new double[50 * 40];
+        double[] z = new double[50 * 40];
+        for (int row = 0; row < 40; row++) {
+            for (int column = 0; column < 50; column++) {
+                x[row * 50 + column] = column * 10;
+                y[row * 50 + column] = row * 10;
+                z[row * 50 + column] = CoverageRasterEngine.DEFAULT_UE_HEIGHT;
+            }
+        }
+        LinkGainMatrix matrix = LinkGainEngine.newBuilder().addCell(nrModel, 100, 100, 30, 30, 0)
+                .addCell(nrModel, 400, 300, 30, 200, 6).addCell(gaussianModel, 250, 50, 20, -90, 3).build()
+                .calculate(x, y, z);
+        double[] expected = new double[50 * 40];
+        Arrays.fill(expected, Double.NEGATIVE_INFINITY);
+        for (int i = 0; i < matrix.size(); i++) {
+            expected[matrix.getUeIndex(i)] = Math.max(expected[matrix.getUeIndex(i)], matrix.getGain(i));
+        }
+        for (int row = 0; row < 40; row++) {
+            for (int column = 0; column < 50; column++) {
+                Assert.assertEquals(raster.getGain(column, row), expected[row * 50 + column], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void maximumDistanceTest() {
+        CoverageRasterEngine engine = CoverageRasterEngine.newBuilder().setSize(20, 20).setPixelSize(1)
+                .setMaximumDistance(5).addSite(GaussianAntennaModel.newBuilder().build(), 10, 10, 10, 0, 0).build();
+        CoverageTile tile = engine.calculateTile(0, 0);
+        Assert.assertEquals(tile.getSiteIndex(15, 10), 0);
+        Assert.assertEquals(tile.getSiteIndex(16, 10), -1);
+        Assert.assertEquals(tile.getGain(14, 14), Double.NEGATIVE_INFINITY);
+        Assert.assertTrue(tile.getGain(13, 13) > Double.NEGATIVE_INFINITY);
+    }
+
+    @Test
+    public void maximumAngleTablesTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        CoverageRasterEngine.Builder builder = CoverageRasterEngine.newBuilder().setSize(30, 30).setPixelSize(10)
+                .setMaximumDistance(200).setTileSize(8).setThreads(2).addSite(model, 50, 50, 30, 0, 0)
+                .addSite(model, 250, 250, 25, 180, 4).addSite(model, 150, 50, 31, 90, 0)
+                .addSite(model, 50, 250, 30, -45, 0);
+        CoverageRasterEngine engine = builder.build();
+        CoverageRaster raster = engine.calculate();
+        // Sites without table are evaluated directly
+        CoverageRasterEngine boundedEngine = builder.setMaximumAngleTables(1).build();
+        CoverageRaster boundedRaster = boundedEngine.calculate();
+        CoverageRasterEngine directEngine = builder.setMaximumAngleTables(0).build();
+        CoverageRaster directRaster = directEngine.calculate();
+        Assert.assertEquals(engine.getAngleTableCount(), 3);
+        Assert.assertEquals(boundedEngine.getAngleTableCount(), 1);
+        Assert.assertEquals(directEngine.getAngleTableCount(), 0);
+        CoverageRasterEngine quantizedEngine = builder.setMaximumAngleTables(8).setHeightResolution(5).build();
+        quantizedEngine.calculate();
+        Assert.assertEquals(quantizedEngine.getAngleTableCount(), 2);
+        for (int row = 0; row < 30; row++) {
+            for (int column = 0; column < 30; column++) {
+                Assert.assertEquals(boundedRaster.getGain(column, row), raster.getGain(column, row), 1e-9);
+                Assert.assertEquals(boundedRaster.getSiteIndex(column, row), raster.getSiteIndex(column, row));
+                Assert.assertEquals(directRaster.getGain(column, row), raster.getGain(column, row), 1e-9);
+                Assert.assertEquals(directRaster.getSiteIndex(column, row), raster.getSiteIndex(column, row));
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void missingMaximumDistanceTest() {
+        CoverageRasterEngine.newBuilder().setSize(10, 10).setPixelSize(1).build();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void infiniteMaximumDistanceTest() {
+        CoverageRasterEngine.newBuilder().setSize(10, 10).setPixelSize(1)
+                .setMaximumDistance(Double.POSITIVE_INFINITY).build();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidSizeTest() {
+        CoverageRasterEngine.newBuilder().build();
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+import com.christianheina.communication.jantenna.model.enums.FieldExportFormat;
+
+/**
+ * Unit test for {@link FieldWriter}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class FieldWriterTest {
+
+    private static final List<ThetaPhi> ANGLE_LIST = ThetaPhi.equallySpacedSphere(10);
+
+    @Test
+    public void npyTest() throws IOException {
+        Path path = Files.createTempFile("field", ".npy");
+        try {
+            NrAntennaModel model = NrAntennaModel.newBuilder().build();
+            try (FieldWriter writer = FieldWriter.create(path, FieldExportFormat.NPY)) {
+                writer.write(model.calculateField(ANGLE_LIST));
+            }
+            try (FieldWriter writer = FieldWriter.append(path, FieldExportFormat.NPY)) {
+                Assert.assertEquals(writer.getRecordCount(), ANGLE_LIST.size());
+                writer.write(model, ANGLE_LIST);
+            }
+            byte[] bytes = Files.readAllBytes(path);
+            Assert.assertEquals(bytes.length, FieldWriter.NPY_HEADER_BYTES + 2 * ANGLE_LIST.size() * 24);
+            Assert.assertEquals(bytes.length % 64, FieldWriter.NPY_HEADER_BYTES % 64);
+            String header = new String(bytes, 0, FieldWriter.NPY_HEADER_BYTES, StandardCharsets.US_ASCII);
+            Assert.assertTrue(header.contains("'shape': (" + 2 * ANGLE_LIST.size() + ",)"));
+            Assert.assertEquals(bytes[FieldWriter.NPY_HEADER_BYTES - 1], '\n');
+            ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < 2 * ANGLE_LIST.size(); i++) {
+                ThetaPhi thetaPhi = ANGLE_LIST.get(i % ANGLE_LIST.size());
+                int offset = FieldWriter.NPY_HEADER_BYTES + i * FieldWriter.RECORD_BYTES;
+                Assert.assertEquals(buffer.getDouble(offset), thetaPhi.getTheta());
+                Assert.assertEquals(buffer.getDouble(offset + 8), thetaPhi.getPhi());
+                Assert.assertEquals(buffer.getDouble(offset + 16),
+                        model.calculateGain(thetaPhi.getTheta(), thetaPhi.getPhi()), 1e-9);
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void rawGridTest() throws IOException {
+        Path path = Files.createTempFile("field", ".bin");
+        try {
+            GaussianAntennaModel model = GaussianAntennaModel.newBuilder().build();
+            try (FieldWriter writer = FieldWriter.create(path, FieldExportFormat.RAW)) {
+                writer.writeGrid(model, 1, 1);
+                Assert.assertEquals(writer.getRecordCount(), 181 * 360);
+            }
+            try (FieldWriter writer = FieldWriter.append(path, FieldExportFormat.RAW)) {
+                writer.write(new double[] { 0, 1 }, new double[] { 2, 3 }, new double[] { 4, 5 }, 1, 1);
+                Assert.assertEquals(writer.getRecordCount(), 181 * 360 + 1);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+            Assert.assertEquals(buffer.capacity(), (181 * 360 + 1) * FieldWriter.RECORD_BYTES);
+            int offset = (90 * 360 + 180) * FieldWriter.RECORD_BYTES;
+            Assert.assertEquals(buffer.getDouble(offset), Math.PI / 2, 1e-12);
+            Assert.assertEquals(buffer.getDouble(offset + 8), 0, 1e-12);
+            Assert.assertEquals(buffer.getDouble(offset + 16), 0, 1e-9);
+            Assert.assertEquals(buffer.getDouble(buffer.capacity() - 8), 5.0);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void appendMismatchTest() throws IOException {
+        Path path = Files.createTempFile("field", ".npy");
+        try {
+            Files.write(path, new byte[] { 1, 2, 3 });
+            FieldWriter.append(path, FieldExportFormat.NPY);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void appendRawToNpyTest() throws IOException {
+        Path path = Files.createTempFile("field", ".npy");
+        try {
+            // Header size is a multiple of the record size, so only the magic tells the formats apart
+            FieldWriter.create(path, FieldExportFormat.NPY).close();
+            FieldWriter.append(path, FieldExportFormat.RAW);
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+}
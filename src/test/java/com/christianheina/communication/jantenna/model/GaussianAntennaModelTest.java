@@ -60,4 +60,37 @@ public class GaussianAntennaModelTest {
         Assert.assertEquals(first.getImaginary(), FIRST_VALUE.getImaginary());
     }
 
+    @Test
+    public void calculateGainTest() {
+        GaussianAntennaModel model = GaussianAntennaModel.newBuilder().build();
+        ThetaPhi thetaPhi = ThetaPhi.fromDegrees(85, 4);
+        double gain = model.calculateGain(thetaPhi.getTheta(), thetaPhi.getPhi());
+        Assert.assertEquals(gain, 20 * Math.log10(model.calculateAngle(thetaPhi).abs()), 1e-12);
+    }
+
+    @Test
+    public void calculateThresholdRegionTest() {
+        GaussianAntennaModel model = GaussianAntennaModel.newBuilder()
+                .setHorizontalHalfPowerBeamWidth(HORIZONTAL_HALF_POWER_BEAM_WIDTH)
+                .setVerticalHalfPowerBeamWidth(VERTICAL_HALF_POWER_BEAM_WIDTH).build();
+        double halfPower = 10 * Math.log10(0.5);
+        AngularRegion region = model.calculateThresholdRegion(halfPower);
+        Assert.assertEquals(region.getPhiMax(), Math.toRadians(HORIZONTAL_HALF_POWER_BEAM_WIDTH / 2), 1e-3);
+        Assert.assertEquals(region.getThetaMax(), Math.toRadians(90 + VERTICAL_HALF_POWER_BEAM_WIDTH / 2), 1e-3);
+        AngularRegion solved = ThresholdSolver.solveRegion(model, halfPower);
+        Assert.assertEquals(solved.getPhiMin(), region.getPhiMin(), 1e-9);
+        Assert.assertEquals(solved.getThetaMin(), region.getThetaMin(), 1e-9);
+        Assert.assertTrue(model.calculateThresholdRegion(1).isEmpty());
+    }
+
+    @Test
+    public void toBuilderTest() {
+        GaussianAntennaModel model = GaussianAntennaModel.newBuilder()
+                .setHorizontalHalfPowerBeamWidth(HORIZONTAL_HALF_POWER_BEAM_WIDTH)
+                .setVerticalHalfPowerBeamWidth(VERTICAL_HALF_POWER_BEAM_WIDTH).build();
+        GaussianAntennaModel copy = model.toBuilder().build();
+        Assert.assertEquals(copy.getVerticalHalfPowerBeamWidth(), VERTICAL_HALF_POWER_BEAM_WIDTH);
+        Assert.assertEquals(copy.getHorizontalHalfPowerBeamWidth(), HORIZONTAL_HALF_POWER_BEAM_WIDTH);
+    }
+
 }
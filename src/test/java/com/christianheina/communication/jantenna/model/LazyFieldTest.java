@@ -0,0 +1,77 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Unit test for {@link LazyField}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class LazyFieldTest {
+
+    private static final List<ThetaPhi> ANGLE_LIST = ThetaPhi.equallySpacedSphere(5);
+
+    @Test
+    public void memoizedTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        LazyField field = model.calculateLazyField(ANGLE_LIST, true);
+        Assert.assertTrue(field.isMemoized());
+        Assert.assertEquals(field.getCalculatedCount(), 0);
+        List<Complex> values = field.getElectricField(ElectricField.RELATIVE_GAIN);
+        Assert.assertEquals(values.size(), ANGLE_LIST.size());
+        Complex value = values.get(10);
+        Assert.assertEquals(value.getReal(), model.calculateAngle(ANGLE_LIST.get(10)).getReal());
+        Assert.assertEquals(field.getGain(10), model.calculateGain(ANGLE_LIST.get(10).getTheta(),
+                ANGLE_LIST.get(10).getPhi()), 1e-12);
+        Assert.assertEquals(field.getCalculatedCount(), 1);
+    }
+
+    @Test
+    public void notMemoizedTest() {
+        CompositeAntennaModel model = CompositeAntennaModel.newBuilder()
+                .addModel(GaussianAntennaModel.newBuilder().build(), new Complex(0, 1)).build();
+        LazyField field = model.calculateLazyField(ANGLE_LIST, false);
+        Assert.assertFalse(field.isMemoized());
+        Assert.assertEquals(field.getValue(3).getImaginary(), model.calculateAngle(ANGLE_LIST.get(3)).getImaginary());
+        Assert.assertEquals(field.getCalculatedCount(), 0);
+    }
+
+    @Test
+    public void toFieldTest() {
+        GaussianAntennaModel model = GaussianAntennaModel.newBuilder().build();
+        Field expected = model.calculateField(ANGLE_LIST);
+        Field field = model.calculateLazyField(ANGLE_LIST, true).toField();
+        Assert.assertEquals(field.getThetaPhiList(), ANGLE_LIST);
+        List<Complex> expectedValues = expected.getElectricField(ElectricField.RELATIVE_GAIN);
+        List<Complex> values = field.getElectricField(ElectricField.RELATIVE_GAIN);
+        for (int i = 0; i < ANGLE_LIST.size(); i++) {
+            Assert.assertEquals(values.get(i).getReal(), expectedValues.get(i).getReal());
+            Assert.assertEquals(values.get(i).getImaginary(), expectedValues.get(i).getImaginary());
+        }
+    }
+
+}
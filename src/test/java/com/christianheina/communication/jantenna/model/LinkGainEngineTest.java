@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.math3.complex.Complex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.FieldType;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Unit test for {@link LinkGainEngine}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class LinkGainEngineTest {
+
+    private static final double DOWNTILT = 10;
+    private static final double[] UE_X = { 100, -100, 2000, 100 };
+    private static final double[] UE_Y = { 0, 0, 0, 30 };
+    private static final double[] UE_Z = { -100 * Math.tan(Math.toRadians(DOWNTILT)), 0, 0, -5 };
+
+    @Test
+    public void calculateTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        LinkGainEngine engine = LinkGainEngine.newBuilder().addCell(model, 0, 0, 0, 0, DOWNTILT)
+                .setMaximumDistance(1000).build();
+        LinkGainMatrix matrix = engine.calculate(UE_X, UE_Y, UE_Z);
+        // UE behind cell is at attenuation floor and UE far away is beyond maximum distance
+        Assert.assertEquals(matrix.size(), 2);
+        Assert.assertEquals(matrix.getUeIndex(0), 0);
+        Assert.assertEquals(matrix.getGain(0), NrAntennaModel.DEFAULT_MAXIMUM_GAIN, 1e-9);
+        Assert.assertEquals(matrix.getUeIndex(1), 3);
+        Assert.assertTrue(matrix.getGain(1) < NrAntennaModel.DEFAULT_MAXIMUM_GAIN);
+    }
+
+    @Test
+    public void calculateRotatedTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        LinkGainEngine engine = LinkGainEngine.newBuilder().addCell(model, 10, 20, 0, 90, 0).build();
+        LinkGainMatrix matrix = engine.calculate(new double[] { 10 }, new double[] { 120 }, new double[] { 0 });
+        Assert.assertEquals(matrix.size(), 1);
+        Assert.assertEquals(matrix.getGain(0), NrAntennaModel.DEFAULT_MAXIMUM_GAIN, 1e-9);
+    }
+
+    @Test
+    public void calculateTopKTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        LinkGainEngine engine = LinkGainEngine.newBuilder().addCell(model, 0, 0, 0, 30, 0)
+                .addCell(model, 0, 0, 0, 0, 0).addCell(model, 0, 0, 0, -60, 0).setTopK(2).build();
+        LinkGainMatrix matrix = engine.calculate(new double[] { 100 }, new double[] { 0 }, new double[] { 0 });
+        Assert.assertEquals(matrix.size(), 2);
+        Assert.assertEquals(matrix.getCellIndex(0), 1);
+        Assert.assertEquals(matrix.getCellIndex(1), 0);
+        Assert.assertTrue(matrix.getGain(0) > matrix.getGain(1));
+    }
+
+    @Test
+    public void calculateDistanceCullingTest() {
+        Random random = new Random(1);
+        int ueCount = 2000;
+        double[] x = new double[ueCount];
+        double[] y = new double[ueCount];
+        double[] z = new double[ueCount];
+        for (int i = 0; i < ueCount; i++) {
+            x[i] = random.nextDouble() * 5000 - 2500;
+            y[i] = random.nextDouble() * 5000 - 2500;
+            z[i] = -25;
+        }
+        NrAntennaModel model = NrAntennaModel.newBuilder().setMaximumAttenuation(200)
+                .setVerticalSidelobeAttenuation(200).build();
+        LinkGainMatrix culled = LinkGainEngine.newBuilder().addCell(model, 300, -200, 0, 45, 0).setMaximumDistance(700)
+                .build().calculate(x, y, z);
+        LinkGainMatrix all = LinkGainEngine.newBuilder().addCell(model, 300, -200, 0, 45, 0).build().calculate(x, y,
+                z);
+        int expected = 0;
+        for (int i = 0; i < all.size(); i++) {
+            int ue = all.getUeIndex(i);
+            if (Math.pow(x[ue] - 300, 2) + Math.pow(y[ue] + 200, 2) + Math.pow(z[ue], 2) <= 700 * 700) {
+                expected++;
+            }
+        }
+        Assert.assertEquals(all.size(), ueCount);
+        Assert.assertEquals(culled.size(), expected);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void calculateMismatchTest() {
+        LinkGainEngine.newBuilder().build().calculate(new double[1], new double[2], new double[1]);
+    }
+
+    @Test
+    public void calculateNarrowLobeTest() {
+        // Lobe narrower than the threshold solver sampling must not be culled
+        AntennaModel model = new AntennaModel() {
+            @Override
+            public Field calculateField(List<ThetaPhi> thetaPhiList) {
+                List<Complex> fieldDataList = new ArrayList<>();
+                for (ThetaPhi thetaPhi : thetaPhiList) {
+                    fieldDataList.add(calculateAngle(thetaPhi));
+                }
+                return Field.newBuilder().setThetaPhiList(thetaPhiList)
+                        .addElectricField(ElectricField.RELATIVE_GAIN, fieldDataList).setFieldType(FieldType.FARFIELD)
+                        .build();
+            }
+
+            @Override
+            public Complex calculateAngle(ThetaPhi thetaPhi) {
+                boolean inLobe = Math.abs(thetaPhi.getPhi() - Math.toRadians(0.5)) < Math.toRadians(0.2);
+                return new Complex(inLobe ? 1 : 1e-3, 0);
+            }
+        };
+        double phi = Math.toRadians(0.5);
+        LinkGainMatrix matrix = LinkGainEngine.newBuilder().addCell(model, 0, 0, 0, 0, 0).setMinimumGain(-10).build()
+                .calculate(new double[] { 100 * Math.cos(phi), 100 }, new double[] { 100 * Math.sin(phi), 0 },
+                        new double[] { 0, 0 });
+        Assert.assertEquals(matrix.size(), 1);
+        Assert.assertEquals(matrix.getUeIndex(0), 0);
+        Assert.assertEquals(matrix.getGain(0), 0, 1e-9);
+    }
+
+    @Test
+    public void calculateFloorInsideRegionTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        double floor = NrAntennaModel.DEFAULT_MAXIMUM_GAIN - NrAntennaModel.DEFAULT_MAXIMUM_ATTENUATION;
+        double theta = Math.toRadians(10);
+        double phi = Math.toRadians(100);
+        // Corner of the threshold region bounding box where the gain is still at the attenuation floor
+        Assert.assertTrue(model.calculateThresholdRegion(Math.nextUp(floor)).contains(theta, phi));
+        Assert.assertEquals(model.calculateGain(theta, phi), floor);
+        LinkGainMatrix matrix = LinkGainEngine.newBuilder().addCell(model, 0, 0, 0, 0, 0).build().calculate(
+                new double[] { 100 * Math.sin(theta) * Math.cos(phi), 100 },
+                new double[] { 100 * Math.sin(theta) * Math.sin(phi), 0 }, new double[] { 100 * Math.cos(theta), 0 });
+        Assert.assertEquals(matrix.size(), 1);
+        Assert.assertEquals(matrix.getUeIndex(0), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidMaximumDistanceTest() {
+        LinkGainEngine.newBuilder().setMaximumDistance(0).build();
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidTopKTest() {
+        LinkGainEngine.newBuilder().setTopK(-1).build();
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Unit test for {@link MultiFrequencyField}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class MultiFrequencyFieldTest {
+
+    private static final List<ThetaPhi> ANGLE_LIST = Arrays.asList(ThetaPhi.fromDegrees(90, 0),
+            ThetaPhi.fromDegrees(45, 10));
+
+    private static MultiFrequencyField newField() {
+        return new MultiFrequencyField(ANGLE_LIST, new double[] { 1e9, 2e9 }, new double[] { 1, 0.5, 0.1, 0 },
+                new double[] { 0, 0, 0, 1 });
+    }
+
+    @Test
+    public void getGainTest() {
+        MultiFrequencyField field = newField();
+        Assert.assertEquals(field.getGain(0, 0), 0.0);
+        Assert.assertEquals(field.getGain(1, 0), -20, 1e-12);
+        Assert.assertEquals(field.getImaginary(1, 1), 1.0);
+    }
+
+    @Test
+    public void getFieldTest() {
+        List<Complex> values = newField().getField(1).getElectricField(ElectricField.RELATIVE_GAIN);
+        Assert.assertEquals(values.size(), ANGLE_LIST.size());
+        Assert.assertEquals(values.get(1).getImaginary(), 1.0);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void indexTest() {
+        newField().getReal(2, 0);
+    }
+
+}
@@ -81,4 +81,78 @@ public class NrAntennaModelTest {
         Assert.assertEquals(first.getImaginary(), FIRST_VALUE.getImaginary());
     }
 
+    @Test
+    public void calculateGainTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        ThetaPhi thetaPhi = ThetaPhi.fromDegrees(70, 25);
+        double gain = model.calculateGain(thetaPhi.getTheta(), thetaPhi.getPhi());
+        Assert.assertEquals(gain, 20 * Math.log10(model.calculateAngle(thetaPhi).abs()), 1e-12);
+    }
+
+    @Test
+    public void calculateThresholdRegionTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        AngularRegion region = model.calculateThresholdRegion(NrAntennaModel.DEFAULT_MAXIMUM_GAIN - 3);
+        Assert.assertEquals(region.getPhiMax(), Math.toRadians(32.5), 1e-12);
+        Assert.assertEquals(region.getPhiMin(), Math.toRadians(-32.5), 1e-12);
+        Assert.assertEquals(region.getThetaMin(), Math.toRadians(90 - 32.5), 1e-12);
+        Assert.assertEquals(region.getThetaMax(), Math.toRadians(90 + 32.5), 1e-12);
+        AngularRegion solved = ThresholdSolver.solveRegion(model, NrAntennaModel.DEFAULT_MAXIMUM_GAIN - 3);
+        Assert.assertEquals(solved.getPhiMax(), region.getPhiMax(), 1e-9);
+        Assert.assertEquals(solved.getThetaMin(), region.getThetaMin(), 1e-9);
+    }
+
+    @Test
+    public void calculateThresholdRegionLimitsTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        Assert.assertTrue(model.calculateThresholdRegion(NrAntennaModel.DEFAULT_MAXIMUM_GAIN + 1).isEmpty());
+        Assert.assertSame(model.calculateThresholdRegion(
+                NrAntennaModel.DEFAULT_MAXIMUM_GAIN - NrAntennaModel.DEFAULT_MAXIMUM_ATTENUATION), AngularRegion.FULL);
+    }
+
+    @Test
+    public void calculateThresholdCutTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        double phi = Math.toRadians(20);
+        AngularRegion cut = model.calculateThresholdCut(phi, 0);
+        AngularRegion solved = ThresholdSolver.solveCut(model, phi, 0);
+        Assert.assertEquals(cut.getThetaMin(), solved.getThetaMin(), 1e-9);
+        Assert.assertEquals(cut.getThetaMax(), solved.getThetaMax(), 1e-9);
+        Assert.assertEquals(model.calculateGain(cut.getThetaMax(), phi), 0, 1e-9);
+    }
+
+    @Test
+    public void toBuilderTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder()
+                .setHorizontalHalfPowerBeamWidth(HORIZONTAL_HALF_POWER_BEAM_WIDTH)
+                .setVerticalHalfPowerBeamWidth(VERTICAL_HALF_POWER_BEAM_WIDTH)
+                .setMaximumAttenuation(MAXIMUM_ATTENUATION)
+                .setVerticalSidelobeAttenuation(VERTICAL_SIDELOBE_ATTENUATION).setMaximumGain(MAXIMUM_GAIN)
+                .setPolarizationSlantAngle(POLARIZATION_SLANT_ANGLE).setPolarizationModel(POLARIZATION_MODEL).build();
+        NrAntennaModel copy = model.toBuilder().build();
+        Assert.assertNotSame(copy, model);
+        Assert.assertEquals(copy.getVerticalHalfPowerBeamWidth(), VERTICAL_HALF_POWER_BEAM_WIDTH);
+        Assert.assertEquals(copy.getHorizontalHalfPowerBeamWidth(), HORIZONTAL_HALF_POWER_BEAM_WIDTH);
+        Assert.assertEquals(copy.getVerticalSidelobeAttenuation(), VERTICAL_SIDELOBE_ATTENUATION);
+        Assert.assertEquals(copy.getMaximumGain(), MAXIMUM_GAIN);
+        Assert.assertEquals(copy.getMaximumAttenuation(), MAXIMUM_ATTENUATION);
+        Assert.assertEquals(copy.getPolarizationSlantAngle(), POLARIZATION_SLANT_ANGLE);
+        Assert.assertEquals(copy.getPolarizationModel(), POLARIZATION_MODEL);
+    }
+
+    @Test
+    public void withTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        Assert.assertEquals(model.withMaximumGain(MAXIMUM_GAIN).getMaximumGain(), MAXIMUM_GAIN);
+        Assert.assertEquals(model.withVerticalHalfPowerBeamWidth(VERTICAL_HALF_POWER_BEAM_WIDTH)
+                .getVerticalHalfPowerBeamWidth(), VERTICAL_HALF_POWER_BEAM_WIDTH);
+        Assert.assertEquals(model.withHorizontalHalfPowerBeamWidth(HORIZONTAL_HALF_POWER_BEAM_WIDTH)
+                .getHorizontalHalfPowerBeamWidth(), HORIZONTAL_HALF_POWER_BEAM_WIDTH);
+        Assert.assertEquals(model.withVerticalSidelobeAttenuation(VERTICAL_SIDELOBE_ATTENUATION)
+                .getVerticalSidelobeAttenuation(), VERTICAL_SIDELOBE_ATTENUATION);
+        Assert.assertEquals(model.withMaximumAttenuation(MAXIMUM_ATTENUATION).getMaximumAttenuation(),
+                MAXIMUM_ATTENUATION);
+        Assert.assertEquals(model.getMaximumGain(), NrAntennaModel.DEFAULT_MAXIMUM_GAIN);
+    }
+
 }
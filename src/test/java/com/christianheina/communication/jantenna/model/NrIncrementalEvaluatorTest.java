@@ -0,0 +1,110 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.math3.complex.Complex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+
+/**
+ * Unit test for {@link NrIncrementalEvaluator}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class NrIncrementalEvaluatorTest {
+
+    private static final List<ThetaPhi> ANGLE_LIST = ThetaPhi.equallySpacedSphere(5);
+
+    private static void assertGain(double[] gain, NrAntennaModel model) {
+        for (int i = 0; i < ANGLE_LIST.size(); i++) {
+            ThetaPhi thetaPhi = ANGLE_LIST.get(i);
+            Assert.assertEquals(gain[i], model.calculateGain(thetaPhi.getTheta(), thetaPhi.getPhi()));
+        }
+    }
+
+    @Test
+    public void evaluateGainTest() {
+        NrIncrementalEvaluator evaluator = new NrIncrementalEvaluator(ANGLE_LIST);
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        assertGain(evaluator.evaluateGain(model), model);
+        model = model.withMaximumGain(12);
+        assertGain(evaluator.evaluateGain(model), model);
+        model = model.withVerticalHalfPowerBeamWidth(20);
+        assertGain(evaluator.evaluateGain(model), model);
+        model = model.withHorizontalHalfPowerBeamWidth(90);
+        assertGain(evaluator.evaluateGain(model), model);
+        model = model.withMaximumAttenuation(25).withVerticalSidelobeAttenuation(20);
+        assertGain(evaluator.evaluateGain(model), model);
+        assertGain(evaluator.evaluateGain(model), model);
+    }
+
+    @Test
+    public void evaluateTest() {
+        NrIncrementalEvaluator evaluator = new NrIncrementalEvaluator(ANGLE_LIST);
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        evaluator.evaluate(model);
+        model = model.withVerticalHalfPowerBeamWidth(10);
+        List<Complex> values = evaluator.evaluate(model).getElectricField(ElectricField.RELATIVE_GAIN);
+        List<Complex> expected = model.calculateField(ANGLE_LIST).getElectricField(ElectricField.RELATIVE_GAIN);
+        for (int i = 0; i < ANGLE_LIST.size(); i++) {
+            Assert.assertEquals(values.get(i).getReal(), expected.get(i).getReal(), 1e-12);
+            Assert.assertEquals(values.get(i).getImaginary(), expected.get(i).getImaginary(), 1e-12);
+        }
+        Assert.assertEquals(evaluator.getThetaPhiList(), ANGLE_LIST);
+    }
+
+    @Test
+    public void changedTermsTest() {
+        NrIncrementalEvaluator evaluator = new NrIncrementalEvaluator(ANGLE_LIST);
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        evaluator.evaluate(model);
+        long vertical = evaluator.getVerticalCount();
+        long horizontal = evaluator.getHorizontalCount();
+        Set<Double> thetaSet = new HashSet<>();
+        Set<Double> phiSet = new HashSet<>();
+        for (ThetaPhi thetaPhi : ANGLE_LIST) {
+            thetaSet.add(thetaPhi.getTheta());
+            phiSet.add(thetaPhi.getPhi());
+        }
+        Assert.assertEquals(vertical, thetaSet.size());
+        Assert.assertEquals(horizontal, phiSet.size());
+        Assert.assertEquals(evaluator.getCombinedCount(), ANGLE_LIST.size());
+        // Maximum gain is an offset and recalculates no terms
+        evaluator.evaluate(model.withMaximumGain(12));
+        Assert.assertEquals(evaluator.getVerticalCount(), vertical);
+        Assert.assertEquals(evaluator.getHorizontalCount(), horizontal);
+        Assert.assertEquals(evaluator.getCombinedCount(), ANGLE_LIST.size());
+        // Vertical change leaves horizontal terms cached
+        evaluator.evaluate(model.withMaximumGain(12).withVerticalHalfPowerBeamWidth(20));
+        Assert.assertEquals(evaluator.getVerticalCount(), 2 * vertical);
+        Assert.assertEquals(evaluator.getHorizontalCount(), horizontal);
+        Assert.assertEquals(evaluator.getCombinedCount(), 2 * ANGLE_LIST.size());
+        // Horizontal change leaves vertical terms cached
+        evaluator.evaluate(model.withMaximumGain(12).withVerticalHalfPowerBeamWidth(20)
+                .withHorizontalHalfPowerBeamWidth(90));
+        Assert.assertEquals(evaluator.getVerticalCount(), 2 * vertical);
+        Assert.assertEquals(evaluator.getHorizontalCount(), 2 * horizontal);
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.model.enums.DownsamplingMode;
+
+/**
+ * Unit test for {@link PatternPyramid}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class PatternPyramidTest {
+
+    @Test
+    public void maxTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        PatternPyramid pyramid = PatternPyramid.newBuilder().setModel(model).build();
+        Assert.assertEquals(pyramid.getLevelCount(), 5);
+        double[] steps = { 1, 2, 4, 12, 36 };
+        for (int i = 0; i < steps.length; i++) {
+            PatternLevel level = pyramid.getLevel(i);
+            Assert.assertEquals(level.getStep(), steps[i], 1e-12);
+            Assert.assertEquals(level.getThetaCount(), (int) (180 / steps[i]) + 1);
+            Assert.assertEquals(level.getPhiCount(), (int) (360 / steps[i]));
+            // Peak is preserved on every level
+            Assert.assertEquals(level.getGain(Math.PI / 2, 0), model.getMaximumGain(), 1e-9);
+        }
+        PatternLevel finest = pyramid.getLevel(0);
+        for (int i = 0; i < finest.getThetaCount(); i += 7) {
+            for (int j = 0; j < finest.getPhiCount(); j += 11) {
+                double theta = Math.toRadians(i);
+                double phi = Math.toRadians(-180 + j);
+                Assert.assertEquals(finest.getGain(i, j), model.calculateGain(theta, phi), 1e-9);
+                // Coarse samples bound all fine samples up to their neighbours
+                PatternLevel coarse = pyramid.getLevel(2);
+                Assert.assertTrue(coarse.getGain(theta, phi) >= finest.getGain(i, j) - 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void meanTest() {
+        GaussianAntennaModel model = GaussianAntennaModel.newBuilder().build();
+        PatternPyramid pyramid = PatternPyramid.newBuilder().setModel(model).setStep(2)
+                .setDownsamplingMode(DownsamplingMode.MEAN).build();
+        Assert.assertEquals(pyramid.getDownsamplingMode(), DownsamplingMode.MEAN);
+        PatternLevel coarse = pyramid.getLevel(1);
+        Assert.assertEquals(coarse.getStep(), 4, 1e-12);
+        // Peak is smoothed by the neighbouring samples
+        Assert.assertTrue(coarse.getGain(Math.PI / 2, 0) < 0);
+        Assert.assertTrue(coarse.getGain(Math.PI / 2, 0) > model.calculateGain(Math.toRadians(92), Math.toRadians(2)));
+        Assert.assertEquals(coarse.toField().getElectricField(ElectricField.RELATIVE_GAIN).size(), coarse.size());
+    }
+
+    @Test
+    public void selectLevelTest() {
+        PatternPyramid pyramid = PatternPyramid.newBuilder().setModel(GaussianAntennaModel.newBuilder().build())
+                .build();
+        Assert.assertEquals(pyramid.selectLevel(0.1).getStep(), 1, 1e-12);
+        Assert.assertEquals(pyramid.selectLevel(1).getStep(), 2, 1e-12);
+        Assert.assertEquals(pyramid.selectLevel(5).getStep(), 4, 1e-12);
+        Assert.assertEquals(pyramid.selectLevel(6).getStep(), 12, 1e-12);
+        Assert.assertEquals(pyramid.selectLevel(90).getStep(), 36, 1e-12);
+        Assert.assertEquals(pyramid.getGain(Math.PI / 2, 0, 90), 0, 1e-9);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidStepTest() {
+        PatternPyramid.newBuilder().setModel(GaussianAntennaModel.newBuilder().build()).setStep(7).build();
+    }
+
+}
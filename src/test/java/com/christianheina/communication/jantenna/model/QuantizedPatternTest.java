@@ -0,0 +1,133 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+import com.christianheina.communication.jantenna.model.enums.QuantizationBits;
+
+/**
+ * Unit test for {@link QuantizedPattern}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class QuantizedPatternTest {
+
+    private static final List<ThetaPhi> ANGLE_LIST = ThetaPhi.equallySpacedSphere(5);
+
+    @Test
+    public void nrTest() {
+        NrAntennaModel model = NrAntennaModel.newBuilder().build();
+        QuantizedPattern pattern = QuantizedPattern.newBuilder().setField(model.calculateField(ANGLE_LIST))
+                .setBits(QuantizationBits.BITS_8).build();
+        Assert.assertEquals(pattern.size(), ANGLE_LIST.size());
+        Assert.assertEquals(pattern.getOffset(), model.getMaximumGain() - model.getMaximumAttenuation(), 1e-9);
+        Assert.assertEquals(pattern.getScale(), model.getMaximumAttenuation() / 255, 1e-9);
+        Assert.assertTrue(pattern.getMaximumError() < 0.1);
+        for (int i = 0; i < ANGLE_LIST.size(); i++) {
+            ThetaPhi thetaPhi = ANGLE_LIST.get(i);
+            Assert.assertEquals(pattern.getGain(i), model.calculateGain(thetaPhi.getTheta(), thetaPhi.getPhi()),
+                    pattern.getMaximumError() + 1e-9);
+        }
+        Field field = pattern.toField();
+        Assert.assertEquals(field.getThetaPhiList(), ANGLE_LIST);
+        Complex value = field.getElectricField(ElectricField.RELATIVE_GAIN).get(0);
+        Assert.assertEquals(20 * Math.log10(value.abs()), pattern.getGain(0), 1e-9);
+    }
+
+    @Test
+    public void gaussianFloorTest() {
+        GaussianAntennaModel model = GaussianAntennaModel.newBuilder().build();
+        QuantizedPattern pattern = QuantizedPattern.newBuilder().setField(model.calculateField(ANGLE_LIST))
+                .setMinimumGain(-40).build();
+        Assert.assertEquals(pattern.getBits(), QuantizationBits.BITS_16);
+        Assert.assertEquals(pattern.getOffset(), -40, 1e-9);
+        for (int i = 0; i < ANGLE_LIST.size(); i++) {
+            ThetaPhi thetaPhi = ANGLE_LIST.get(i);
+            double gain = Math.max(model.calculateGain(thetaPhi.getTheta(), thetaPhi.getPhi()), -40);
+            Assert.assertEquals(pattern.getGain(i), gain, pattern.getMaximumError() + 1e-9);
+        }
+    }
+
+    @Test
+    public void serializationTest() {
+        Field field = NrAntennaModel.newBuilder().build().calculateField(ANGLE_LIST);
+        for (QuantizationBits bits : QuantizationBits.values()) {
+            for (boolean deltaCoding : new boolean[] { false, true }) {
+                QuantizedPattern pattern = QuantizedPattern.newBuilder().setField(field).setBits(bits)
+                        .setDeltaCoding(deltaCoding).build();
+                byte[] bytes = pattern.toByteArray();
+                // Grid angles are stored per row and column, so codes dominate the size
+                Assert.assertTrue(bytes.length < ANGLE_LIST.size() * bits.getBits() / 8 + 1000);
+                QuantizedPattern decoded = QuantizedPattern.fromByteArray(bytes);
+                Assert.assertEquals(decoded.isDeltaCoded(), deltaCoding);
+                Assert.assertEquals(decoded.size(), pattern.size());
+                for (int i = 0; i < pattern.size(); i++) {
+                    Assert.assertEquals(decoded.getCode(i), pattern.getCode(i));
+                    Assert.assertEquals(decoded.getThetaPhiList().get(i).getTheta(), ANGLE_LIST.get(i).getTheta());
+                    Assert.assertEquals(decoded.getThetaPhiList().get(i).getPhi(), ANGLE_LIST.get(i).getPhi());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void deltaCodingSizeTest() {
+        Field field = NrAntennaModel.newBuilder().build().calculateField(ThetaPhi.equallySpacedSphere(0.5));
+        for (QuantizationBits bits : QuantizationBits.values()) {
+            QuantizedPattern.Builder builder = QuantizedPattern.newBuilder().setField(field).setBits(bits);
+            int fixedBytes = builder.setDeltaCoding(false).build().toByteArray().length;
+            int deltaBytes = builder.setDeltaCoding(true).build().toByteArray().length;
+            if (bits == QuantizationBits.BITS_16) {
+                // Most steps along phi are far below 64 codes, so most samples take one byte instead of two
+                Assert.assertTrue(deltaBytes < 0.8 * fixedBytes, deltaBytes + " >= 0.8 * " + fixedBytes);
+            } else {
+                Assert.assertTrue(deltaBytes <= fixedBytes, deltaBytes + " > " + fixedBytes);
+            }
+        }
+    }
+
+    @Test
+    public void irregularSerializationTest() {
+        List<ThetaPhi> angleList = Arrays.asList(ThetaPhi.fromDegrees(90, 0), ThetaPhi.fromDegrees(90, 10),
+                ThetaPhi.fromDegrees(80, 5));
+        QuantizedPattern pattern = QuantizedPattern.newBuilder()
+                .setField(NrAntennaModel.newBuilder().build().calculateField(angleList)).setDeltaCoding(true).build();
+        QuantizedPattern decoded = QuantizedPattern.fromByteArray(pattern.toByteArray());
+        for (int i = 0; i < angleList.size(); i++) {
+            Assert.assertEquals(decoded.getGain(i), pattern.getGain(i));
+            Assert.assertEquals(decoded.getThetaPhiList().get(i).getTheta(), angleList.get(i).getTheta());
+            Assert.assertEquals(decoded.getThetaPhiList().get(i).getPhi(), angleList.get(i).getPhi());
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void truncatedTest() {
+        byte[] bytes = QuantizedPattern.newBuilder()
+                .setField(GaussianAntennaModel.newBuilder().build().calculateField(ANGLE_LIST)).build().toByteArray();
+        QuantizedPattern.fromByteArray(Arrays.copyOf(bytes, bytes.length - 1));
+    }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model.server;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.math3.complex.Complex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+import com.christianheina.communication.jantenna.model.AntennaModel;
+import com.christianheina.communication.jantenna.model.enums.NrAntennaPolarizationModel;
+
+/**
+ * Unit test for {@link PatternProtocol}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class PatternProtocolTest {
+
+    private static final List<ThetaPhi> ANGLE_LIST = Arrays.asList(ThetaPhi.fromDegrees(90, 0),
+            ThetaPhi.fromDegrees(60, -30));
+
+    @Test
+    public void evaluateRequestTest() {
+        AntennaModel model = AntennaModel.newNrAntennaModelBuilder().setVerticalHalfPowerBeamWidth(20)
+                .setPolarizationModel(NrAntennaPolarizationModel.MODEL_1).build();
+        List<Complex> valueList = PatternProtocol
+                .decodeResponse(PatternProtocol.evaluateRequest(PatternProtocol.encodeRequest(model, ANGLE_LIST)));
+        Assert.assertEquals(valueList.size(), ANGLE_LIST.size());
+        for (int i = 0; i < ANGLE_LIST.size(); i++) {
+            // Angles are transferred in radians, so the server evaluates exactly the same angles
+            Assert.assertEquals(valueList.get(i).getReal(), model.calculateAngle(ANGLE_LIST.get(i)).getReal());
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void truncatedRequestTest() {
+        byte[] request = PatternProtocol.encodeRequest(AntennaModel.newGaussianAntennaModelBuilder().build(),
+                ANGLE_LIST);
+        PatternProtocol.evaluateRequest(Arrays.copyOf(request, request.length - 1));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void invalidMagicTest() {
+        PatternProtocol.decodeResponse(new byte[8]);
+    }
+
+}
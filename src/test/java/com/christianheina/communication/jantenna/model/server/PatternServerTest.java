@@ -0,0 +1,272 @@
+/*
+ * Copyright 2022 Christian Heina
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.christianheina.communication.jantenna.model.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math3.complex.Complex;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.christianheina.communication.jantenna.commons.ElectricField;
+import com.christianheina.communication.jantenna.commons.Field;
+import com.christianheina.communication.jantenna.commons.ThetaPhi;
+import com.christianheina.communication.jantenna.model.AntennaModel;
+import com.christianheina.communication.jantenna.model.MultiFrequencyField;
+
+/**
+ * Unit test for {@link PatternServer}.
+ * 
+ * @author Christian Heina (developer@christianheina.com)
+ */
+@SuppressWarnings("javadoc")
+public class PatternServerTest {
+
+    private static final List<ThetaPhi> ANGLE_LIST = ThetaPhi.equallySpacedSphere(10);
+
+    @Test
+    public void calculateFieldTest() throws IOException {
+        PatternServer server = PatternServer.newBuilder().setWorkerThreads(2).build().start();
+        try {
+            AntennaModel localModel = AntennaModel.newNrAntennaModelBuilder().setMaximumGain(12).build();
+            AntennaModel remoteModel = RemoteAntennaModel.newBuilder().setModel(localModel)
+                    .setServer(server.getHost(), server.getPort()).build();
+            Field remoteField = remoteModel.calculateField(ANGLE_LIST);
+            List<Complex> remoteValues = remoteField.getElectricField(ElectricField.RELATIVE_GAIN);
+            Assert.assertEquals(remoteValues.size(), ANGLE_LIST.size());
+            for (int i = 0; i < ANGLE_LIST.size(); i++) {
+                Assert.assertEquals(remoteValues.get(i).getReal(),
+                        localModel.calculateAngle(ANGLE_LIST.get(i)).getReal());
+            }
+            Complex value = remoteModel.calculateAngle(ThetaPhi.fromDegrees(90, 0));
+            Assert.assertEquals(value.getReal(), localModel.calculateAngle(ThetaPhi.fromDegrees(90, 0)).getReal(),
+                    1e-9);
+            Assert.assertEquals(server.getEvaluationCount(), 2);
+            remoteModel.calculateField(ANGLE_LIST);
+            Assert.assertEquals(server.getEvaluationCount(), 2);
+            Assert.assertEquals(server.getCacheHitCount(), 1);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void coalesceTest() throws Exception {
+        PatternServer server = PatternServer.newBuilder().setWorkerThreads(2).build().start();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            AntennaModel remoteModel = RemoteAntennaModel.newBuilder()
+                    .setModel(AntennaModel.newGaussianAntennaModelBuilder().build())
+                    .setServer(server.getHost(), server.getPort()).build();
+            List<Future<Field>> futureList = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futureList.add(executor.submit(() -> remoteModel.calculateField(ANGLE_LIST)));
+            }
+            for (Future<Field> future : futureList) {
+                Assert.assertEquals(future.get().getElectricField(ElectricField.RELATIVE_GAIN).size(),
+                        ANGLE_LIST.size());
+            }
+            Assert.assertEquals(server.getEvaluationCount(), 1);
+        } finally {
+            executor.shutdownNow();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void badRequestTest() throws IOException {
+        PatternServer server = PatternServer.newBuilder().setWorkerThreads(1).build().start();
+        try {
+            URL url = new URL("http", server.getHost(), server.getPort(), PatternProtocol.EVALUATE_PATH);
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(new byte[] { 1, 2, 3 });
+            }
+            Assert.assertEquals(connection.getResponseCode(), HttpURLConnection.HTTP_BAD_REQUEST);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void unsupportedModelTest() {
+        RemoteAntennaModel.newBuilder().setModel(AntennaModel.newCompositeAntennaModelBuilder().build())
+                .setServer(PatternServer.DEFAULT_HOST, 1).build();
+    }
+
+    @Test
+    public void cacheBytesTest() throws IOException {
+        int responseBytes = 2 * Integer.BYTES + ANGLE_LIST.size() * 2 * Double.BYTES;
+        PatternServer server = PatternServer.newBuilder().setWorkerThreads(1).setMaximumCacheBytes(responseBytes)
+                .build().start();
+        try {
+            AntennaModel first = RemoteAntennaModel.newBuilder()
+                    .setModel(AntennaModel.newGaussianAntennaModelBuilder().build())
+                    .setServer(server.getHost(), server.getPort()).build();
+            AntennaModel second = RemoteAntennaModel.newBuilder()
+                    .setModel(AntennaModel.newNrAntennaModelBuilder().build())
+                    .setServer(server.getHost(), server.getPort()).build();
+            first.calculateField(ANGLE_LIST);
+            Assert.assertEquals(server.getCacheBytes(), responseBytes);
+            second.calculateField(ANGLE_LIST);
+            Assert.assertEquals(server.getCacheBytes(), responseBytes);
+            // First response was evicted to stay within the byte limit
+            first.calculateField(ANGLE_LIST);
+            Assert.assertEquals(server.getEvaluationCount(), 3);
+            Assert.assertEquals(server.getCacheHitCount(), 0);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void requestTooLargeTest() throws IOException {
+        PatternServer server = PatternServer.newBuilder().setWorkerThreads(1).setMaximumRequestBytes(64).build()
+                .start();
+        try {
+            AntennaModel remoteModel = RemoteAntennaModel.newBuilder()
+                    .setModel(AntennaModel.newGaussianAntennaModelBuilder().build())
+                    .setServer(server.getHost(), server.getPort()).build();
+            try {
+                remoteModel.calculateField(ANGLE_LIST);
+                Assert.fail("Expected request to be rejected");
+            } catch (IllegalStateException e) {
+                Assert.assertTrue(e.getMessage().contains("413"));
+            }
+            Assert.assertEquals(server.getEvaluationCount(), 0);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void localQueryTest() throws IOException {
+        PatternServer server = PatternServer.newBuilder().setWorkerThreads(1).build().start();
+        try {
+            AntennaModel localModel = AntennaModel.newNrAntennaModelBuilder().build();
+            AntennaModel remoteModel = RemoteAntennaModel.newBuilder().setModel(localModel)
+                    .setServer(server.getHost(), server.getPort()).build();
+            Assert.assertEquals(remoteModel.calculateGain(Math.PI / 2, 0), localModel.calculateGain(Math.PI / 2, 0));
+            Assert.assertEquals(remoteModel.calculateThresholdRegion(0).getThetaMax(),
+                    localModel.calculateThresholdRegion(0).getThetaMax());
+            Assert.assertEquals(remoteModel.calculateContour(0, 10).size(), localModel.calculateContour(0, 10).size());
+            // Per sample and threshold queries do not reach the server
+            Assert.assertEquals(server.getEvaluationCount(), 0);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void calculateMultiFrequencyFieldTest() throws IOException {
+        PatternServer server = PatternServer.newBuilder().setWorkerThreads(1).build().start();
+        try {
+            AntennaModel localModel = AntennaModel.newNrAntennaModelBuilder().build();
+            AntennaModel remoteModel = RemoteAntennaModel.newBuilder().setModel(localModel)
+                    .setServer(server.getHost(), server.getPort()).build();
+            MultiFrequencyField field = remoteModel.calculateField(ANGLE_LIST, new double[] { 2e9, 3.5e9 });
+            Assert.assertEquals(server.getEvaluationCount(), 1);
+            for (int i = 0; i < ANGLE_LIST.size(); i++) {
+                double expected = localModel.calculateAngle(ANGLE_LIST.get(i)).getReal();
+                Assert.assertEquals(field.getReal(0, i), expected);
+                Assert.assertEquals(field.getReal(1, i), expected);
+            }
+            // Remote child of a composite is calculated with a single request as well
+            AntennaModel compositeModel = AntennaModel.newCompositeAntennaModelBuilder().addModel(remoteModel)
+                    .addModel(localModel).build();
+            compositeModel.calculateField(ANGLE_LIST);
+            Assert.assertEquals(server.getEvaluationCount() + server.getCacheHitCount(), 2);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void queueFullTest() throws Exception {
+        PatternServer server = PatternServer.newBuilder().setWorkerThreads(1).setMaximumQueuedEvaluations(1).build()
+                .start();
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            // Occupy the single worker and the single queue slot
+            server.getWorkerExecutor().execute(() -> awaitQuietly(latch));
+            server.getWorkerExecutor().execute(() -> awaitQuietly(latch));
+            AntennaModel remoteModel = RemoteAntennaModel.newBuilder()
+                    .setModel(AntennaModel.newGaussianAntennaModelBuilder().build())
+                    .setServer(server.getHost(), server.getPort()).build();
+            try {
+                remoteModel.calculateField(ANGLE_LIST);
+                Assert.fail("Expected request to be rejected");
+            } catch (IllegalStateException e) {
+                Assert.assertTrue(e.getMessage().contains("503"));
+            }
+            Assert.assertEquals(server.getEvaluationCount(), 0);
+        } finally {
+            latch.countDown();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void restartTest() throws Exception {
+        PatternServer server = PatternServer.newBuilder().setWorkerThreads(1).build().start();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            server.getWorkerExecutor().execute(() -> awaitQuietly(latch));
+            AntennaModel remoteModel = RemoteAntennaModel.newBuilder()
+                    .setModel(AntennaModel.newGaussianAntennaModelBuilder().build())
+                    .setServer(server.getHost(), server.getPort()).setTimeout(5000).build();
+            executor.submit(() -> remoteModel.calculateField(ANGLE_LIST));
+            while (server.getWorkerExecutor().getQueue().isEmpty()) {
+                Thread.sleep(10);
+            }
+            // Queued evaluation is dropped by stop, identical requests after restart must not wait on it
+            server.stop();
+            latch.countDown();
+            server.start();
+            AntennaModel restartedModel = RemoteAntennaModel.newBuilder()
+                    .setModel(AntennaModel.newGaussianAntennaModelBuilder().build())
+                    .setServer(server.getHost(), server.getPort()).build();
+            Assert.assertEquals(restartedModel.calculateField(ANGLE_LIST).getElectricField(ElectricField.RELATIVE_GAIN)
+                    .size(), ANGLE_LIST.size());
+            Assert.assertEquals(server.getEvaluationCount(), 1);
+        } finally {
+            latch.countDown();
+            executor.shutdownNow();
+            server.stop();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}